@@ -0,0 +1,23 @@
+package com.example.demo.cache;
+
+import org.redisson.client.codec.ByteArrayCodec;
+import org.redisson.client.codec.Codec;
+import org.redisson.client.codec.StringCodec;
+import org.redisson.codec.CompositeCodec;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+
+/**
+ * Turns cached values into the bytes stored in Redis and back. Every cache map is opened with
+ * {@link #REDISSON_CODEC} so Redisson stores those bytes as they are instead of encoding them again.
+ */
+public interface CacheCodec {
+    Codec REDISSON_CODEC = new CompositeCodec(StringCodec.INSTANCE, ByteArrayCodec.INSTANCE);
+
+    byte[] encode(Object value);
+
+    /** Returns null for bytes this version cannot read, which callers treat as a cache miss. */
+    <T> T decode(byte[] bytes, Class<T> type);
+
+    <T> T decode(byte[] bytes, TypeReference<T> type);
+}
@@ -0,0 +1,65 @@
+package com.example.demo.cache;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ThreadLocalRandom;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Encoded value plus how long it took to compute and when it logically expires. The Redis TTL is
+ * set past that expiry so the entry can still be served while it is recomputed.
+ *
+ * <p>{@link #shouldRefreshEarly} is the XFetch test: the closer the expiry and the more expensive
+ * the value, the likelier a reader is to refresh it early, so one reader usually refreshes a hot
+ * key before it expires instead of all of them missing at once.
+ */
+@Getter
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class CacheEntry {
+    static byte FORMAT = 0x45;
+    static int HEADER_SIZE = 1 + Long.BYTES * 2;
+
+    byte[] payload;
+    long computeMillis;
+    long expiresAt;
+
+    private CacheEntry(byte[] payload, long computeMillis, long expiresAt) {
+        this.payload = payload;
+        this.computeMillis = computeMillis;
+        this.expiresAt = expiresAt;
+    }
+
+    public static byte[] wrap(byte[] payload, long computeMillis, long expiresAt) {
+        return ByteBuffer.allocate(HEADER_SIZE + payload.length)
+                .put(FORMAT)
+                .putLong(computeMillis)
+                .putLong(expiresAt)
+                .put(payload)
+                .array();
+    }
+
+    /** Returns null for anything not written by {@link #wrap}. */
+    public static CacheEntry unwrap(byte[] bytes) {
+        if (bytes == null || bytes.length < HEADER_SIZE || bytes[0] != FORMAT) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 1, bytes.length - 1);
+        long computeMillis = buffer.getLong();
+        long expiresAt = buffer.getLong();
+        byte[] payload = new byte[buffer.remaining()];
+        buffer.get(payload);
+        return new CacheEntry(payload, computeMillis, expiresAt);
+    }
+
+    public boolean isExpired(long now) {
+        return now >= expiresAt;
+    }
+
+    public boolean shouldRefreshEarly(long now, double beta) {
+        // nextDouble is in [0, 1) and log(0) would force a refresh, so draw from (0, 1] instead
+        double random = 1 - ThreadLocalRandom.current().nextDouble();
+        return now - computeMillis * beta * Math.log(random) >= expiresAt;
+    }
+}
@@ -0,0 +1,392 @@
+package com.example.demo.cache;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.redisson.api.RBatch;
+import org.redisson.api.RMapCache;
+import org.redisson.api.RTopic;
+import org.redisson.client.codec.StringCodec;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * A typed cache-aside region backed by one Redisson map, optionally fronted by an in-process L1.
+ * A hit costs one Redis round trip (none on an L1 hit); misses are loaded through the
+ * {@link SingleFlightLoader} and hot entries are refreshed early in the background
+ * (see {@link CacheEntry}). L1 copies are dropped on every node through a pub/sub topic when a key
+ * is written or evicted.
+ *
+ * <p>L1 keeps the encoded bytes, so every caller gets its own copy of a value and may modify it.
+ *
+ * <p>Hits and misses per tier, Redis read latency and load time are published as cache.* meters
+ * tagged with the region name.
+ */
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class CacheRegion<K, V> {
+    static String TOPIC_PREFIX = "cacheRegion:invalidate:";
+    static String SEPARATOR = "|";
+
+    String name;
+    Function<K, String> keyMapper;
+    ValueCodec<V> codec;
+    CacheRegions regions;
+    long ttlMillis;
+    long retentionMillis;
+    boolean earlyRefresh;
+
+    RMapCache<String, byte[]> remote;
+    Cache<String, byte[]> local;
+    RTopic topic;
+    int listenerId;
+
+    LongAdder localHits = new LongAdder();
+    LongAdder localMisses = new LongAdder();
+    LongAdder remoteHits = new LongAdder();
+    LongAdder remoteMisses = new LongAdder();
+    Timer readTimer;
+    Timer loadTimer;
+
+    CacheRegion(
+            String name,
+            CacheRegionProperties.Region config,
+            Function<K, String> keyMapper,
+            ValueCodec<V> codec,
+            CacheRegions regions) {
+        this.name = name;
+        this.keyMapper = keyMapper;
+        this.codec = codec;
+        this.regions = regions;
+        this.ttlMillis = config.getTtl().toMillis();
+        this.earlyRefresh = config.isEarlyRefresh();
+        this.retentionMillis = ttlMillis + (earlyRefresh ? regions.staleGrace().toMillis() : 0);
+        this.remote = regions.getRedissonClient().getMapCache(name, CacheCodec.REDISSON_CODEC);
+
+        if (config.isLocal()) {
+            this.local = Caffeine.newBuilder()
+                    .maximumSize(config.getLocalMaximumSize())
+                    .expireAfterWrite(config.getLocalTtl())
+                    .build();
+            this.topic = regions.getRedissonClient().getTopic(TOPIC_PREFIX + name, StringCodec.INSTANCE);
+            this.listenerId = topic.addListener(String.class, (channel, message) -> onInvalidate(message));
+        } else {
+            this.local = null;
+            this.topic = null;
+            this.listenerId = 0;
+        }
+
+        MeterRegistry meterRegistry = regions.getMeterRegistry();
+        this.readTimer = Timer.builder("cache.remote.read")
+                .description("Redis round trips reading the region")
+                .tag("cache", name)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.loadTimer = Timer.builder("cache.load")
+                .description("Time spent loading missing or refreshed entries from the source")
+                .tag("cache", name)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        registerGets(meterRegistry, "remote", "hit", remoteHits);
+        registerGets(meterRegistry, "remote", "miss", remoteMisses);
+        if (local != null) {
+            registerGets(meterRegistry, "local", "hit", localHits);
+            registerGets(meterRegistry, "local", "miss", localMisses);
+            Gauge.builder("cache.local.size", local, Cache::estimatedSize)
+                    .tag("cache", name)
+                    .register(meterRegistry);
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /** Returns the cached value, or loads, caches and returns it. A null from the loader is not cached. */
+    public V get(K key, Function<K, V> loader) {
+        String cacheKey = keyMapper.apply(key);
+
+        V value = getLocal(cacheKey);
+        if (value != null) {
+            return value;
+        }
+
+        byte[] bytes;
+        long started = System.nanoTime();
+        try {
+            bytes = remote.get(cacheKey);
+            readTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+        } catch (RuntimeException e) {
+            log.warn("Cache region {} unavailable, loading {} directly", name, cacheKey, e);
+            return loader.apply(key);
+        }
+
+        CacheEntry entry = CacheEntry.unwrap(bytes);
+        value = entry == null ? null : codec.decode(entry.getPayload());
+        if (value != null) {
+            remoteHits.increment();
+            putLocal(cacheKey, bytes);
+            refreshIfDue(key, cacheKey, entry, loader);
+            return value;
+        }
+        remoteMisses.increment();
+
+        return regions.getSingleFlightLoader()
+                .load(
+                        name + ":" + cacheKey,
+                        () -> {
+                            CacheEntry filled = CacheEntry.unwrap(remote.get(cacheKey));
+                            return filled == null ? null : codec.decode(filled.getPayload());
+                        },
+                        () -> fill(key, cacheKey, loader));
+    }
+
+    /**
+     * Returns every key that is cached or loadable. Cached keys are read in one round trip and the
+     * rest are loaded with one {@code bulkLoader} call; keys it leaves out are treated as absent.
+     */
+    public Map<K, V> getAll(Collection<K> keys, Function<Collection<K>, Map<K, V>> bulkLoader) {
+        Map<K, V> result = new HashMap<>();
+        Map<String, K> pending = new LinkedHashMap<>();
+        for (K key : keys) {
+            String cacheKey = keyMapper.apply(key);
+            V value = getLocal(cacheKey);
+            if (value != null) {
+                result.put(key, value);
+            } else {
+                pending.put(cacheKey, key);
+            }
+        }
+        if (pending.isEmpty()) {
+            return result;
+        }
+
+        Function<K, V> loader = key -> bulkLoader.apply(List.of(key)).get(key);
+        Map<String, byte[]> cached = readAll(pending.keySet());
+        List<K> missing = pending.entrySet().stream()
+                .filter(pendingKey -> {
+                    byte[] bytes = cached.get(pendingKey.getKey());
+                    CacheEntry entry = CacheEntry.unwrap(bytes);
+                    V value = entry == null ? null : codec.decode(entry.getPayload());
+                    if (value == null) {
+                        return true;
+                    }
+                    result.put(pendingKey.getValue(), value);
+                    putLocal(pendingKey.getKey(), bytes);
+                    refreshIfDue(pendingKey.getValue(), pendingKey.getKey(), entry, loader);
+                    return false;
+                })
+                .map(Map.Entry::getValue)
+                .toList();
+        remoteHits.add(pending.size() - missing.size());
+        remoteMisses.add(missing.size());
+        if (missing.isEmpty()) {
+            return result;
+        }
+
+        List<String> missingKeys = missing.stream().map(keyMapper).toList();
+        Map<K, V> loaded = regions.getSingleFlightLoader()
+                .load(
+                        name + ":" + String.join(",", missingKeys),
+                        () -> {
+                            Map<K, V> filled = decodeAll(missing, readAll(missingKeys));
+                            return filled.size() == missing.size() ? filled : null;
+                        },
+                        () -> fillAll(missing, bulkLoader));
+        result.putAll(loaded);
+        return result;
+    }
+
+    public void put(K key, V value) {
+        String cacheKey = keyMapper.apply(key);
+        byte[] bytes = wrap(value, 0);
+        remote.fastPut(cacheKey, bytes, retentionMillis, TimeUnit.MILLISECONDS);
+        replaceLocal(cacheKey, bytes);
+    }
+
+    public void evict(K key) {
+        String cacheKey = keyMapper.apply(key);
+        remote.fastRemove(cacheKey);
+        if (local != null) {
+            local.invalidate(cacheKey);
+            publishInvalidation(cacheKey);
+        }
+    }
+
+    /** Queues the write and its invalidation on {@code batch}; the local copy is updated right away. */
+    public void put(RBatch batch, K key, V value) {
+        String cacheKey = keyMapper.apply(key);
+        byte[] bytes = wrap(value, 0);
+        batch.<String, byte[]>getMapCache(name, CacheCodec.REDISSON_CODEC)
+                .fastPutAsync(cacheKey, bytes, retentionMillis, TimeUnit.MILLISECONDS);
+        if (local != null) {
+            local.put(cacheKey, bytes);
+            batch.getTopic(TOPIC_PREFIX + name, StringCodec.INSTANCE).publishAsync(invalidation(cacheKey));
+        }
+    }
+
+    /** Queues the removal and its invalidation on {@code batch}; the local copy is dropped right away. */
+    public void evict(RBatch batch, K key) {
+        String cacheKey = keyMapper.apply(key);
+        batch.<String, byte[]>getMapCache(name, CacheCodec.REDISSON_CODEC).fastRemoveAsync(cacheKey);
+        if (local != null) {
+            local.invalidate(cacheKey);
+            batch.getTopic(TOPIC_PREFIX + name, StringCodec.INSTANCE).publishAsync(invalidation(cacheKey));
+        }
+    }
+
+    void close() {
+        if (local != null) {
+            topic.removeListener(listenerId);
+            local.invalidateAll();
+        }
+    }
+
+    private V fill(K key, String cacheKey, Function<K, V> loader) {
+        long started = System.currentTimeMillis();
+        V value = loader.apply(key);
+        if (value == null) {
+            return null;
+        }
+
+        long computeMillis = System.currentTimeMillis() - started;
+        loadTimer.record(computeMillis, TimeUnit.MILLISECONDS);
+        byte[] bytes = wrap(value, computeMillis);
+        remote.fastPut(cacheKey, bytes, retentionMillis, TimeUnit.MILLISECONDS);
+        replaceLocal(cacheKey, bytes);
+        return value;
+    }
+
+    private Map<K, V> fillAll(List<K> keys, Function<Collection<K>, Map<K, V>> bulkLoader) {
+        long started = System.currentTimeMillis();
+        Map<K, V> loaded = bulkLoader.apply(keys);
+        long computeMillis = System.currentTimeMillis() - started;
+        loadTimer.record(computeMillis, TimeUnit.MILLISECONDS);
+
+        Map<String, byte[]> entries = new HashMap<>();
+        loaded.forEach((key, value) -> entries.put(keyMapper.apply(key), wrap(value, computeMillis)));
+        if (!entries.isEmpty()) {
+            remote.putAll(entries, retentionMillis, TimeUnit.MILLISECONDS);
+            entries.forEach(this::replaceLocal);
+        }
+        return loaded;
+    }
+
+    private void refreshIfDue(K key, String cacheKey, CacheEntry entry, Function<K, V> loader) {
+        if (!earlyRefresh) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        if (!entry.isExpired(now) && !entry.shouldRefreshEarly(now, regions.earlyRefreshBeta())) {
+            return;
+        }
+        regions.refreshInBackground(name + ":" + cacheKey, () -> {
+            // skip when another node refreshed it since we read it
+            CacheEntry current = CacheEntry.unwrap(remote.get(cacheKey));
+            if (current != null && current.getExpiresAt() == entry.getExpiresAt()) {
+                fill(key, cacheKey, loader);
+            }
+        });
+    }
+
+    private byte[] wrap(V value, long computeMillis) {
+        return CacheEntry.wrap(codec.encode(value), computeMillis, System.currentTimeMillis() + ttlMillis);
+    }
+
+    private Map<String, byte[]> readAll(Collection<String> cacheKeys) {
+        long started = System.nanoTime();
+        try {
+            Map<String, byte[]> cached = remote.getAll(new HashSet<>(cacheKeys));
+            readTimer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            return cached;
+        } catch (RuntimeException e) {
+            log.warn("Cache region {} unavailable, loading {} keys directly", name, cacheKeys.size(), e);
+            return Map.of();
+        }
+    }
+
+    private Map<K, V> decodeAll(List<K> keys, Map<String, byte[]> cached) {
+        Map<K, V> result = new HashMap<>();
+        for (K key : keys) {
+            CacheEntry entry = CacheEntry.unwrap(cached.get(keyMapper.apply(key)));
+            V value = entry == null ? null : codec.decode(entry.getPayload());
+            if (value != null) {
+                result.put(key, value);
+            }
+        }
+        return result;
+    }
+
+    private V getLocal(String cacheKey) {
+        if (local == null) {
+            return null;
+        }
+        byte[] bytes = local.getIfPresent(cacheKey);
+        CacheEntry entry = CacheEntry.unwrap(bytes);
+        V value = entry == null ? null : codec.decode(entry.getPayload());
+        if (value == null) {
+            localMisses.increment();
+            return null;
+        }
+        localHits.increment();
+        return value;
+    }
+
+    private void putLocal(String cacheKey, byte[] bytes) {
+        if (local != null) {
+            local.put(cacheKey, bytes);
+        }
+    }
+
+    /** Stores a freshly written value in L1 and drops the stale copies on other nodes. */
+    private void replaceLocal(String cacheKey, byte[] bytes) {
+        if (local != null) {
+            local.put(cacheKey, bytes);
+            publishInvalidation(cacheKey);
+        }
+    }
+
+    private void publishInvalidation(String cacheKey) {
+        try {
+            topic.publish(invalidation(cacheKey));
+        } catch (Exception e) {
+            log.error("Failed to publish invalidation for {} in {}", cacheKey, name, e);
+        }
+    }
+
+    private void registerGets(MeterRegistry meterRegistry, String tier, String result, LongAdder count) {
+        FunctionCounter.builder("cache.gets", count, LongAdder::sum)
+                .tag("cache", name)
+                .tag("tier", tier)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private String invalidation(String cacheKey) {
+        return regions.getNodeId() + SEPARATOR + cacheKey;
+    }
+
+    private void onInvalidate(String message) {
+        int index = message.indexOf(SEPARATOR);
+        if (index < 0 || regions.getNodeId().equals(message.substring(0, index))) {
+            return;
+        }
+        local.invalidate(message.substring(index + 1));
+    }
+}
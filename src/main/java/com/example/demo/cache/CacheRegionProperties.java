@@ -0,0 +1,28 @@
+package com.example.demo.cache;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@ConfigurationProperties(prefix = "cache")
+public class CacheRegionProperties {
+    Map<String, Region> regions = new HashMap<>();
+
+    @Data
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    public static class Region {
+        Duration ttl = Duration.ofDays(1);
+        boolean local = false;
+        long localMaximumSize = 10_000;
+        Duration localTtl = Duration.ofSeconds(60);
+        boolean earlyRefresh = true;
+    }
+}
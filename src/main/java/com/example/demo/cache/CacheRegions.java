@@ -0,0 +1,123 @@
+package com.example.demo.cache;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import jakarta.annotation.PreDestroy;
+
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+
+/** Creates cache regions from cache.regions.* and holds what they share. */
+@Slf4j
+@Component
+@EnableConfigurationProperties(CacheRegionProperties.class)
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class CacheRegions {
+    @Getter(AccessLevel.PACKAGE)
+    RedissonClient redissonClient;
+
+    @Getter(AccessLevel.PACKAGE)
+    SingleFlightLoader singleFlightLoader;
+
+    @Getter(AccessLevel.PACKAGE)
+    MeterRegistry meterRegistry;
+
+    LockMetrics lockMetrics;
+
+    CacheRegionProperties properties;
+
+    @Getter(AccessLevel.PACKAGE)
+    String nodeId = UUID.randomUUID().toString();
+
+    Map<String, CacheRegion<?, ?>> regions = new ConcurrentHashMap<>();
+    Set<String> refreshing = ConcurrentHashMap.newKeySet();
+    ExecutorService refresher = Executors.newFixedThreadPool(2, runnable -> {
+        Thread thread = new Thread(runnable, "cache-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @NonFinal
+    @Value("${cache.early-refresh.beta}")
+    protected double EARLY_REFRESH_BETA;
+
+    @NonFinal
+    @Value("${cache.early-refresh.stale-grace}")
+    protected long STALE_GRACE;
+
+    public <K, V> CacheRegion<K, V> create(String name, Function<K, String> keyMapper, ValueCodec<V> codec) {
+        CacheRegionProperties.Region config =
+                properties.getRegions().getOrDefault(name, new CacheRegionProperties.Region());
+        CacheRegion<K, V> region = new CacheRegion<>(name, config, keyMapper, codec, this);
+        if (regions.putIfAbsent(name, region) != null) {
+            region.close();
+            throw new IllegalStateException("Cache region " + name + " already exists");
+        }
+        return region;
+    }
+
+    double earlyRefreshBeta() {
+        return EARLY_REFRESH_BETA;
+    }
+
+    Duration staleGrace() {
+        return Duration.ofSeconds(STALE_GRACE);
+    }
+
+    /** Runs {@code refresh} once per key on this node and, through a lock, once across nodes. */
+    void refreshInBackground(String key, Runnable refresh) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+        try {
+            refresher.execute(() -> {
+                RLock lock = redissonClient.getLock("lock:refresh:" + key);
+                boolean locked = false;
+                try {
+                    locked = lockMetrics.tryLock(lock, "lock:refresh", 0, 30, TimeUnit.SECONDS);
+                    if (locked) {
+                        refresh.run();
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } catch (Exception e) {
+                    log.error("Failed to refresh {}", key, e);
+                } finally {
+                    if (locked) {
+                        lockMetrics.unlock(lock, "lock:refresh");
+                    }
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(key);
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        refresher.shutdownNow();
+        regions.values().forEach(CacheRegion::close);
+    }
+}
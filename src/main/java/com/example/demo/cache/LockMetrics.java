@@ -0,0 +1,66 @@
+package com.example.demo.cache;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.redisson.api.RLock;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Acquires and releases Redisson locks while timing how long callers wait, how long the lock is
+ * held and how often tryLock gives up. Meters are tagged with a fixed namespace such as
+ * "lock:user", never the full lock name, so the number of series stays bounded.
+ */
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class LockMetrics {
+    MeterRegistry meterRegistry;
+
+    Map<String, Long> heldSince = new ConcurrentHashMap<>();
+
+    public boolean tryLock(RLock lock, String namespace, long waitTime, long leaseTime, TimeUnit unit)
+            throws InterruptedException {
+        long started = System.nanoTime();
+        boolean locked = lock.tryLock(waitTime, leaseTime, unit);
+        long acquiredAt = System.nanoTime();
+
+        Timer.builder("lock.acquire.wait")
+                .description("Time spent waiting in tryLock")
+                .tag("namespace", namespace)
+                .tag("acquired", String.valueOf(locked))
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(acquiredAt - started, TimeUnit.NANOSECONDS);
+        if (locked) {
+            heldSince.put(holder(lock), acquiredAt);
+        } else {
+            meterRegistry.counter("lock.acquire.failed", "namespace", namespace).increment();
+        }
+        return locked;
+    }
+
+    public void unlock(RLock lock, String namespace) {
+        Long acquiredAt = heldSince.remove(holder(lock));
+        if (acquiredAt != null) {
+            Timer.builder("lock.hold")
+                    .description("Time a lock was held before it was released")
+                    .tag("namespace", namespace)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(System.nanoTime() - acquiredAt, TimeUnit.NANOSECONDS);
+        }
+        lock.unlock();
+    }
+
+    private static String holder(RLock lock) {
+        return lock.getName() + ":" + Thread.currentThread().getId();
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.demo.cache;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.redisson.api.RLock;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Loads a missing cache entry once. Callers on this node that miss the same key share one future;
+ * across nodes the holder of the key's lock loads it and publishes "filled", which wakes the other
+ * nodes to read the cache again. A caller that is not woken in time reads the database itself.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class SingleFlightLoader {
+    static String FILLED_TOPIC = "cache:filled";
+    static String LOCK_PREFIX = "lock:fill:";
+
+    RedissonClient redissonClient;
+    LockMetrics lockMetrics;
+
+    Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    Map<String, CompletableFuture<Void>> fillSignals = new ConcurrentHashMap<>();
+
+    @NonFinal
+    @Value("${cache.single-flight.wait-timeout}")
+    protected long WAIT_TIMEOUT;
+
+    @NonFinal
+    RTopic topic;
+
+    @NonFinal
+    int listenerId;
+
+    /**
+     * @param reader returns the cached value or null on a miss
+     * @param loader reads the database and fills the cache; also used when waiting times out
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T load(String key, Supplier<T> reader, Supplier<T> loader) {
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            return (T) await(existing, key, loader);
+        }
+
+        try {
+            T value = loadAcrossNodes(key, reader, loader);
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    private <T> T loadAcrossNodes(String key, Supplier<T> reader, Supplier<T> loader) {
+        RLock lock = redissonClient.getLock(LOCK_PREFIX + key);
+        boolean locked = false;
+
+        try {
+            // no lease: the watchdog keeps the lock for as long as a slow loader runs
+            locked = lockMetrics.tryLock(lock, lockNamespace(key), 0, -1, TimeUnit.SECONDS);
+            if (locked) {
+                T cached = reader.get();
+                if (cached != null) {
+                    return cached;
+                }
+                T value = loader.get();
+                publishFilled(key);
+                return value;
+            }
+
+            // another node is loading: listen first, then re-check so a fill in between is not missed
+            CompletableFuture<Void> signal = fillSignals.computeIfAbsent(key, ignored -> new CompletableFuture<>());
+            try {
+                T cached = reader.get();
+                if (cached != null) {
+                    return cached;
+                }
+                signal.get(WAIT_TIMEOUT, TimeUnit.MILLISECONDS);
+                cached = reader.get();
+                if (cached != null) {
+                    return cached;
+                }
+            } catch (TimeoutException e) {
+                log.warn("Timed out waiting for {} to be filled, reading the database", key);
+            } finally {
+                fillSignals.remove(key, signal);
+            }
+            return loader.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return loader.get();
+        } catch (ExecutionException e) {
+            return loader.get();
+        } finally {
+            if (locked) {
+                lockMetrics.unlock(lock, lockNamespace(key));
+            }
+        }
+    }
+
+    /** Keys are "<region>:<cache key>", so the lock is metered per region. */
+    private static String lockNamespace(String key) {
+        int index = key.indexOf(':');
+        return LOCK_PREFIX + (index < 0 ? key : key.substring(0, index));
+    }
+
+    private Object await(CompletableFuture<Object> flight, String key, Supplier<?> loader) {
+        try {
+            return flight.get(WAIT_TIMEOUT, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (TimeoutException e) {
+            log.warn("Timed out waiting for in-flight load of {}, reading the database", key);
+        } catch (ExecutionException e) {
+            log.warn("In-flight load of {} failed, reading the database", key, e.getCause());
+        }
+        return loader.get();
+    }
+
+    private void publishFilled(String key) {
+        try {
+            topic.publish(key);
+        } catch (Exception e) {
+            log.error("Failed to publish fill of {}", key, e);
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        topic = redissonClient.getTopic(FILLED_TOPIC, StringCodec.INSTANCE);
+        listenerId = topic.addListener(String.class, (channel, key) -> {
+            CompletableFuture<Void> signal = fillSignals.remove(key);
+            if (signal != null) {
+                signal.complete(null);
+            }
+        });
+    }
+
+    @PreDestroy
+    void stop() {
+        topic.removeListener(listenerId);
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.demo.cache;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+
+/** Typed view of a region's value format. {@link #decode} returns null for bytes it cannot read. */
+public interface ValueCodec<V> {
+    byte[] encode(V value);
+
+    V decode(byte[] bytes);
+
+    static <V> ValueCodec<V> of(CacheCodec codec, Class<V> type) {
+        return new ValueCodec<>() {
+            @Override
+            public byte[] encode(V value) {
+                return codec.encode(value);
+            }
+
+            @Override
+            public V decode(byte[] bytes) {
+                return codec.decode(bytes, type);
+            }
+        };
+    }
+
+    static <V> ValueCodec<V> of(CacheCodec codec, TypeReference<V> type) {
+        return new ValueCodec<>() {
+            @Override
+            public byte[] encode(V value) {
+                return codec.encode(value);
+            }
+
+            @Override
+            public V decode(byte[] bytes) {
+                return codec.decode(bytes, type);
+            }
+        };
+    }
+}
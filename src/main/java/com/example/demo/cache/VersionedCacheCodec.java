@@ -0,0 +1,84 @@
+package com.example.demo.cache;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Jackson-based codec with a one-byte format header. Both formats are always readable and only the
+ * written one is configurable, so during a rolling deploy the new format can be switched on after
+ * every node understands it. Bytes with an unknown header decode as a miss.
+ */
+@Slf4j
+@Component
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class VersionedCacheCodec implements CacheCodec {
+    static byte JSON = 1;
+    static byte SMILE = 2;
+
+    ObjectMapper jsonMapper;
+    ObjectMapper smileMapper;
+    byte writeFormat;
+
+    public VersionedCacheCodec(ObjectMapper objectMapper, @Value("${cache.codec}") String format) {
+        this.jsonMapper = objectMapper;
+        this.smileMapper = objectMapper.copyWith(new SmileFactory());
+        this.writeFormat = "json".equalsIgnoreCase(format) ? JSON : SMILE;
+    }
+
+    @Override
+    public byte[] encode(Object value) {
+        try {
+            byte[] body = (writeFormat == SMILE ? smileMapper : jsonMapper).writeValueAsBytes(value);
+            byte[] bytes = new byte[body.length + 1];
+            bytes[0] = writeFormat;
+            System.arraycopy(body, 0, bytes, 1, body.length);
+            return bytes;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public <T> T decode(byte[] bytes, Class<T> type) {
+        return decode(bytes, jsonMapper.constructType(type));
+    }
+
+    @Override
+    public <T> T decode(byte[] bytes, TypeReference<T> type) {
+        return decode(bytes, jsonMapper.constructType(type));
+    }
+
+    private <T> T decode(byte[] bytes, JavaType type) {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        ObjectMapper mapper;
+        if (bytes[0] == SMILE) {
+            mapper = smileMapper;
+        } else if (bytes[0] == JSON) {
+            mapper = jsonMapper;
+        } else {
+            log.warn("Ignoring cached value with unknown format {}", bytes[0]);
+            return null;
+        }
+
+        try {
+            return mapper.readValue(bytes, 1, bytes.length - 1, type);
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable cached {}: {}", type, e.getMessage());
+            return null;
+        }
+    }
+}
@@ -1,5 +1,17 @@
 package com.example.demo.configuration;
 
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
 import com.example.demo.constant.PredefinedRole;
 import com.example.demo.entity.AttendanceReward;
 import com.example.demo.entity.Role;
@@ -9,22 +21,12 @@ import com.example.demo.repository.AttendanceRewardRepository;
 import com.example.demo.repository.RoleRepository;
 import com.example.demo.repository.TimeFrameRepository;
 import com.example.demo.repository.UserRepository;
+
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.experimental.NonFinal;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.boot.ApplicationRunner;
-import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Configuration;
-import org.springframework.security.crypto.password.PasswordEncoder;
-
-import java.time.LocalDate;
-import java.time.LocalTime;
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.List;
 
 @Configuration
 @RequiredArgsConstructor
@@ -45,8 +47,11 @@ public class ApplicationInitConfig {
             prefix = "spring",
             value = "datasource.driverClassName",
             havingValue = "com.mysql.cj.jdbc.Driver")
-    ApplicationRunner applicationRunner(UserRepository userRepository, RoleRepository roleRepository,
-                                        AttendanceRewardRepository attendanceRewardRepository, TimeFrameRepository timeFrameRepository) {
+    ApplicationRunner applicationRunner(
+            UserRepository userRepository,
+            RoleRepository roleRepository,
+            AttendanceRewardRepository attendanceRewardRepository,
+            TimeFrameRepository timeFrameRepository) {
         log.info("Initializing application.....");
         return args -> {
             if (userRepository.findByUsername(ADMIN_USER_NAME).isEmpty()) {
@@ -93,9 +98,14 @@ public class ApplicationInitConfig {
 
             if (timeFrameRepository.count() == 0) {
                 List<TimeFrame> timeFrames = List.of(
-                        TimeFrame.builder().start(LocalTime.of(9, 0)).end(LocalTime.of(11, 0)).build(),
-                        TimeFrame.builder().start(LocalTime.of(19, 0)).end(LocalTime.of(21, 0)).build()
-                );
+                        TimeFrame.builder()
+                                .start(LocalTime.of(9, 0))
+                                .end(LocalTime.of(11, 0))
+                                .build(),
+                        TimeFrame.builder()
+                                .start(LocalTime.of(19, 0))
+                                .end(LocalTime.of(21, 0))
+                                .build());
                 timeFrameRepository.saveAll(timeFrames);
                 log.info("Inserted time frames for check-in.");
             }
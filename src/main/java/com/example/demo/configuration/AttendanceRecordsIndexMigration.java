@@ -0,0 +1,114 @@
+package com.example.demo.configuration;
+
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+
+import jakarta.annotation.PostConstruct;
+
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.cache.LockMetrics;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Makes sure attendance_records has its (user_id, attendance_date) unique index, which the check-in
+ * claim and the write-behind replay rely on. Runs after Hibernate's schema update; when that could
+ * not add the index because of duplicate rows, the duplicates are removed and the index is added
+ * here, but only when attendance.unique-index-migration.enabled is set, since it deletes rows.
+ * Nodes starting together take turns on a distributed lock, and startup fails if the index still
+ * cannot be added.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@ConditionalOnProperty(
+        prefix = "spring",
+        value = "datasource.driverClassName",
+        havingValue = "com.mysql.cj.jdbc.Driver")
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+@Slf4j
+public class AttendanceRecordsIndexMigration {
+    static String INDEX_NAME = "uk_attendance_records_user_date";
+    static String SCRIPT = "db/attendance_records_unique_user_date.sql";
+    static String LOCK_KEY = "lock:migration:attendance-records";
+
+    DataSource dataSource;
+    JdbcTemplate jdbcTemplate;
+    RedissonClient redissonClient;
+    LockMetrics lockMetrics;
+
+    @NonFinal
+    @Value("${attendance.unique-index-migration.enabled}")
+    protected boolean ENABLED;
+
+    @NonFinal
+    @Value("${attendance.unique-index-migration.lock-wait}")
+    protected long LOCK_WAIT;
+
+    @PostConstruct
+    void migrate() throws InterruptedException {
+        if (indexExists()) {
+            return;
+        }
+        if (!ENABLED) {
+            log.error(
+                    "Index {} is missing from attendance_records; set attendance.unique-index-migration.enabled "
+                            + "or run {} by hand",
+                    INDEX_NAME,
+                    SCRIPT);
+            return;
+        }
+
+        RLock lock = redissonClient.getLock(LOCK_KEY);
+        if (!lockMetrics.tryLock(lock, LOCK_KEY, LOCK_WAIT, -1, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("Timed out waiting for another node to add index " + INDEX_NAME);
+        }
+        try {
+            // another node may have added it while we waited
+            if (indexExists()) {
+                return;
+            }
+
+            log.warn("Index {} is missing, removing duplicate check-ins and adding it", INDEX_NAME);
+            try {
+                new ResourceDatabasePopulator(new ClassPathResource(SCRIPT)).execute(dataSource);
+            } catch (RuntimeException e) {
+                // "Duplicate key name" means it was added after all, by a node not holding the lock
+                if (!indexExists()) {
+                    throw e;
+                }
+                log.info("Index {} was added concurrently", INDEX_NAME);
+                return;
+            }
+
+            if (!indexExists()) {
+                throw new IllegalStateException("Could not add index " + INDEX_NAME + " to attendance_records");
+            }
+            log.info("Added index {} to attendance_records", INDEX_NAME);
+        } finally {
+            lockMetrics.unlock(lock, LOCK_KEY);
+        }
+    }
+
+    private boolean indexExists() {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM information_schema.statistics "
+                        + "WHERE table_schema = DATABASE() AND table_name = 'attendance_records' AND index_name = ?",
+                Integer.class,
+                INDEX_NAME);
+        return count != null && count > 0;
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.demo.configuration;
+
+import java.time.LocalDate;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.example.demo.cache.CacheCodec;
+import com.example.demo.cache.CacheRegion;
+import com.example.demo.cache.CacheRegions;
+import com.example.demo.cache.ValueCodec;
+import com.example.demo.dto.response.RewardHistoryPageResponse;
+import com.example.demo.dto.response.UserResponse;
+import com.example.demo.entity.AttendanceReward;
+import com.example.demo.entity.User;
+import com.example.demo.service.AttendanceMonthSegment;
+
+/** Cache regions by name; TTL, L1 and early refresh of each are set under cache.regions. */
+@Configuration
+public class CacheRegionConfig {
+    @Bean
+    CacheRegion<String, User> userRegion(CacheRegions cacheRegions, CacheCodec cacheCodec) {
+        return cacheRegions.create("userCache", username -> username, ValueCodec.of(cacheCodec, User.class));
+    }
+
+    @Bean
+    CacheRegion<String, UserResponse> userInfoRegion(CacheRegions cacheRegions, CacheCodec cacheCodec) {
+        return cacheRegions.create(
+                "userInfoCache", username -> username, ValueCodec.of(cacheCodec, UserResponse.class));
+    }
+
+    @Bean
+    CacheRegion<LocalDate, AttendanceReward> rewardRegion(CacheRegions cacheRegions, CacheCodec cacheCodec) {
+        return cacheRegions.create(
+                "rewardCache", LocalDate::toString, ValueCodec.of(cacheCodec, AttendanceReward.class));
+    }
+
+    @Bean
+    CacheRegion<String, RewardHistoryPageResponse> rewardHistoryRegion(
+            CacheRegions cacheRegions, CacheCodec cacheCodec) {
+        return cacheRegions.create(
+                "rewardHistoryCache", userId -> userId, ValueCodec.of(cacheCodec, RewardHistoryPageResponse.class));
+    }
+
+    @Bean
+    CacheRegion<AttendanceMonthSegment.Key, AttendanceMonthSegment> attendanceRegion(CacheRegions cacheRegions) {
+        return cacheRegions.create("attendanceCache", AttendanceMonthSegment.Key::toString, new ValueCodec<>() {
+            @Override
+            public byte[] encode(AttendanceMonthSegment value) {
+                return value.encode();
+            }
+
+            @Override
+            public AttendanceMonthSegment decode(byte[] bytes) {
+                return AttendanceMonthSegment.decode(bytes);
+            }
+        });
+    }
+}
@@ -1,50 +1,120 @@
 package com.example.demo.configuration;
 
-import com.example.demo.dto.request.IntrospectRequest;
-import com.example.demo.service.AuthenticationService;
-import com.nimbusds.jose.JOSEException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Map;
+
+import jakarta.annotation.PostConstruct;
+
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.oauth2.jose.jws.MacAlgorithm;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtException;
-import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+import org.springframework.security.oauth2.jwt.MappedJwtClaimSetConverter;
 import org.springframework.stereotype.Component;
 
-import javax.crypto.spec.SecretKeySpec;
-import java.text.ParseException;
-import java.util.Objects;
+import com.example.demo.exception.AppException;
+import com.example.demo.service.AuthenticationService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jwt.SignedJWT;
 
 @Component
 public class CustomJwtDecoder implements JwtDecoder {
-    @Value("${jwt.signerKey}")
-    private String signerKey;
+    @Value("${jwt.verified-cache-size}")
+    private long verifiedCacheSize;
 
     @Autowired
     private AuthenticationService authenticationService;
 
-    private NimbusJwtDecoder nimbusJwtDecoder = null;
+    private final MappedJwtClaimSetConverter claimSetConverter =
+            MappedJwtClaimSetConverter.withDefaults(Collections.emptyMap());
+
+    // verified tokens keyed by SHA-256 of the token, each entry expires with the token itself
+    private Cache<String, Jwt> verifiedTokens;
+
+    @PostConstruct
+    void init() {
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheSize)
+                .expireAfter(new Expiry<String, Jwt>() {
+                    @Override
+                    public long expireAfterCreate(String key, Jwt jwt, long currentTime) {
+                        return Math.max(
+                                0,
+                                Duration.between(Instant.now(), jwt.getExpiresAt())
+                                        .toNanos());
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, Jwt jwt, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, Jwt jwt, long currentTime, long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
 
     @Override
     public Jwt decode(String token) throws JwtException {
+        String key = hash(token);
 
-        try {
-            var response = authenticationService.introspect(
-                    IntrospectRequest.builder().token(token).build());
+        Jwt jwt = verifiedTokens.getIfPresent(key);
+        if (jwt != null) {
+            if (authenticationService.isRevoked(jwt.getId(), jwt.getIssuedAt())) {
+                verifiedTokens.invalidate(key);
+                throw new JwtException("Token invalid");
+            }
+            return jwt;
+        }
 
-            if (!response.isValid()) throw new JwtException("Token invalid");
+        SignedJWT signedJWT;
+        try {
+            signedJWT = authenticationService.verifyToken(token);
+        } catch (AppException e) {
+            throw new JwtException("Token invalid");
         } catch (JOSEException | ParseException e) {
             throw new JwtException(e.getMessage());
         }
 
-        if (Objects.isNull(nimbusJwtDecoder)) {
-            SecretKeySpec secretKeySpec = new SecretKeySpec(signerKey.getBytes(), "HS512");
-            nimbusJwtDecoder = NimbusJwtDecoder.withSecretKey(secretKeySpec)
-                    .macAlgorithm(MacAlgorithm.HS512)
+        jwt = toJwt(token, signedJWT);
+        verifiedTokens.put(key, jwt);
+        return jwt;
+    }
+
+    private Jwt toJwt(String token, SignedJWT signedJWT) {
+        try {
+            Map<String, Object> headers = signedJWT.getHeader().toJSONObject();
+            Map<String, Object> claims =
+                    claimSetConverter.convert(signedJWT.getJWTClaimsSet().getClaims());
+            return Jwt.withTokenValue(token)
+                    .headers(h -> h.putAll(headers))
+                    .claims(c -> c.putAll(claims))
                     .build();
+        } catch (ParseException e) {
+            throw new JwtException(e.getMessage());
         }
+    }
 
-        return nimbusJwtDecoder.decode(token);
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 }
@@ -1,14 +1,20 @@
 package com.example.demo.controller;
 
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.*;
+
 import com.example.demo.dto.response.*;
 import com.example.demo.service.AttendanceRecordsService;
+
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
-import org.springframework.web.bind.annotation.*;
-
-import java.time.LocalDate;
-import java.util.List;
 
 @RestController
 @RequestMapping("/attendance")
@@ -18,21 +24,45 @@ public class AttendanceRecordController {
     AttendanceRecordsService attendanceRecordsService;
 
     @GetMapping("/list")
-    ApiResponse<?> getListChecking(@RequestParam(name = "startDate", required = true) LocalDate startDate, @RequestParam(name = "endDate", required = true) LocalDate endDate) {
+    ApiResponse<?> getListChecking(
+            @RequestParam(name = "startDate", required = true) LocalDate startDate,
+            @RequestParam(name = "endDate", required = true) LocalDate endDate) {
         List<AttendanceRecordResponse> responses = attendanceRecordsService.getListChecking(startDate, endDate);
         return ApiResponse.builder()
                 .result(new AttendanceRecordResponses(responses))
                 .build();
     }
 
-    @GetMapping("/histories")
-    ApiResponse<?> attendanceHistories() {
-        List<RewardHistoryResponse> responses = attendanceRecordsService.getAllRewardHistory();
-        return ApiResponse.builder()
-                .result(responses)
+    @GetMapping("/count")
+    ApiResponse<Long> countChecking(@RequestParam(name = "date", required = false) LocalDate date) {
+        return ApiResponse.<Long>builder()
+                .result(attendanceRecordsService.countChecking(date != null ? date : LocalDate.now()))
                 .build();
     }
 
+    /**
+     * Pages of { histories, nextCursor } when a cursor or size is given. Without either it answers
+     * with the plain list of every reward, the shape clients written before paging expect.
+     */
+    @GetMapping("/histories")
+    ApiResponse<?> attendanceHistories(
+            @RequestParam(name = "cursor", required = false) LocalDate cursor,
+            @RequestParam(name = "size", required = false) Integer size) {
+        if (cursor == null && size == null) {
+            List<RewardHistoryResponse> responses = attendanceRecordsService.getAllRewardHistory();
+            return ApiResponse.builder().result(responses).build();
+        }
+        RewardHistoryPageResponse response = attendanceRecordsService.getRewardHistory(cursor, size);
+        return ApiResponse.builder().result(response).build();
+    }
+
+    @GetMapping("/histories/export")
+    void exportHistories(HttpServletResponse response) throws IOException {
+        response.setContentType("text/csv");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"reward-history.csv\"");
+        attendanceRecordsService.exportRewardHistory(response.getWriter());
+    }
+
     @PostMapping
     ApiResponse<?> markChecking() {
         return ApiResponse.builder()
@@ -1,16 +1,18 @@
 package com.example.demo.controller;
 
+import java.util.List;
+
+import org.springframework.web.bind.annotation.*;
+
 import com.example.demo.dto.request.RoleRequest;
 import com.example.demo.dto.response.ApiResponse;
 import com.example.demo.dto.response.RoleResponse;
 import com.example.demo.service.RoleService;
+
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.web.bind.annotation.*;
-
-import java.util.List;
 
 @RestController
 @RequestMapping("/roles")
@@ -40,4 +42,3 @@ public class RoleController {
         return ApiResponse.<Void>builder().build();
     }
 }
-
@@ -2,14 +2,13 @@ package com.example.demo.controller;
 
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
 public class TestController {
     @RequestMapping("/test")
-    public ResponseEntity<?> test(){
+    public ResponseEntity<?> test() {
         return new ResponseEntity<>("test", HttpStatus.OK);
     }
 }
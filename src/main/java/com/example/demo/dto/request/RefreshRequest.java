@@ -10,4 +10,4 @@ import lombok.experimental.FieldDefaults;
 @FieldDefaults(level = AccessLevel.PRIVATE)
 public class RefreshRequest {
     String token;
-}
\ No newline at end of file
+}
@@ -1,11 +1,12 @@
 package com.example.demo.dto.request;
 
+import java.time.LocalDate;
+
 import jakarta.validation.constraints.Size;
+
 import lombok.*;
 import lombok.experimental.FieldDefaults;
 
-import java.time.LocalDate;
-
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -1,11 +1,11 @@
 package com.example.demo.dto.request;
 
-import lombok.*;
-import lombok.experimental.FieldDefaults;
-
 import java.time.LocalDate;
 import java.util.List;
 
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
 @Data
 @Builder
 @NoArgsConstructor
@@ -17,4 +17,4 @@ public class UserUpdateRequest {
     String lastName;
     LocalDate dob;
     List<String> roles;
-}
\ No newline at end of file
+}
@@ -1,6 +1,7 @@
 package com.example.demo.dto.response;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
+
 import lombok.*;
 import lombok.experimental.FieldDefaults;
 
@@ -16,4 +17,4 @@ public class ApiResponse<T> {
 
     private String message;
     private T result;
-}
\ No newline at end of file
+}
@@ -12,4 +12,3 @@ public class PermissionResponse {
     String name;
     String description;
 }
-
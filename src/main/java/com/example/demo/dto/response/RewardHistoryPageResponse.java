@@ -0,0 +1,16 @@
+package com.example.demo.dto.response;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class RewardHistoryPageResponse {
+    private List<RewardHistoryResponse> histories;
+    private LocalDate nextCursor;
+}
@@ -1,11 +1,14 @@
 package com.example.demo.dto.response;
 
+import java.time.LocalDate;
+
 import lombok.AllArgsConstructor;
 import lombok.Data;
-import java.time.LocalDate;
+import lombok.NoArgsConstructor;
 
 @Data
 @AllArgsConstructor
+@NoArgsConstructor
 public class RewardHistoryResponse {
     private LocalDate date;
     private int rewardAmount;
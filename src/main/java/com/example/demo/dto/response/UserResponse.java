@@ -1,11 +1,10 @@
 package com.example.demo.dto.response;
 
+import java.time.LocalDate;
+
 import lombok.*;
 import lombok.experimental.FieldDefaults;
 
-import java.time.LocalDate;
-import java.util.Set;
-
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -20,4 +19,3 @@ public class UserResponse {
     String avatar;
     int lotus;
 }
-
@@ -1,21 +1,27 @@
 package com.example.demo.entity;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 
-import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import lombok.*;
 import lombok.experimental.FieldDefaults;
 
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
 @Builder
 @FieldDefaults(level = AccessLevel.PRIVATE)
-@Table(name = "attendance_records")
+@Table(
+        name = "attendance_records",
+        uniqueConstraints =
+                @UniqueConstraint(
+                        name = "uk_attendance_records_user_date",
+                        columnNames = {"user_id", "attendance_date"}))
 public class AttendanceRecords {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -35,5 +41,3 @@ public class AttendanceRecords {
     @Column(name = "reward_amount")
     private int rewardAmount;
 }
-
-
@@ -0,0 +1,43 @@
+package com.example.demo.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.*;
+
+import lombok.*;
+import lombok.experimental.FieldDefaults;
+
+/** Append-only; rows are written in batches by {@code AuditTrailService}, never updated. */
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@Entity
+@Table(name = "audit_event", indexes = @Index(name = "idx_audit_event_subject", columnList = "subject"))
+public class AuditEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    Type type;
+
+    String subject;
+
+    String detail;
+
+    @Column(name = "occurred_at", nullable = false)
+    LocalDateTime occurredAt;
+
+    public enum Type {
+        LOGIN,
+        LOGIN_FAILED,
+        LOGOUT,
+        REFRESH,
+        REFRESH_REUSED,
+        CHECK_IN
+    }
+}
@@ -1,12 +1,16 @@
 package com.example.demo.entity;
 
+import java.util.Date;
+
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+
 import lombok.*;
 import lombok.experimental.FieldDefaults;
 
-import java.util.Date;
-
 @Getter
 @Setter
 @Builder
@@ -14,9 +18,11 @@ import java.util.Date;
 @AllArgsConstructor
 @FieldDefaults(level = AccessLevel.PRIVATE)
 @Entity
+@Table(indexes = @Index(name = "idx_invalidated_token_expiry_time", columnList = "expiry_time"))
 public class InvalidatedToken {
     @Id
     String id;
 
+    @Column(name = "expiry_time")
     Date expiryTime;
 }
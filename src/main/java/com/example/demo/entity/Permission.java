@@ -2,6 +2,7 @@ package com.example.demo.entity;
 
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
+
 import lombok.*;
 import lombok.experimental.FieldDefaults;
 
@@ -15,5 +16,6 @@ import lombok.experimental.FieldDefaults;
 public class Permission {
     @Id
     String name;
+
     String description;
-}
\ No newline at end of file
+}
@@ -1,13 +1,14 @@
 package com.example.demo.entity;
 
+import java.util.Set;
+
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.ManyToMany;
+
 import lombok.*;
 import lombok.experimental.FieldDefaults;
 
-import java.util.Set;
-
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -17,7 +18,9 @@ import java.util.Set;
 public class Role {
     @Id
     String name;
+
     String description;
+
     @ManyToMany
     Set<Permission> permissions;
 }
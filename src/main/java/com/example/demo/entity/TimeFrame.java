@@ -1,20 +1,25 @@
 package com.example.demo.entity;
 
+import java.time.LocalTime;
+
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
+
+import com.example.demo.service.TimeFrameChangeListener;
+
 import lombok.*;
 import lombok.experimental.FieldDefaults;
 
-import java.time.LocalTime;
-
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
 @Builder
 @FieldDefaults(level = AccessLevel.PRIVATE)
+@EntityListeners(TimeFrameChangeListener.class)
 public class TimeFrame {
     @Id
     @GeneratedValue
@@ -1,13 +1,20 @@
 package com.example.demo.exception;
 
-public class AppException extends RuntimeException{
+public class AppException extends RuntimeException {
     public AppException(ErrorCode errorCode) {
         super(errorCode.getMessage());
         this.errorCode = errorCode;
     }
 
+    public AppException(ErrorCode errorCode, long retryAfterSeconds) {
+        this(errorCode);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
     private ErrorCode errorCode;
 
+    private long retryAfterSeconds = -1;
+
     public ErrorCode getErrorCode() {
         return errorCode;
     }
@@ -15,4 +22,8 @@ public class AppException extends RuntimeException{
     public void setErrorCode(ErrorCode errorCode) {
         this.errorCode = errorCode;
     }
+
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
 }
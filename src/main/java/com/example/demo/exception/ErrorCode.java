@@ -1,9 +1,10 @@
 package com.example.demo.exception;
 
-import lombok.Getter;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.HttpStatusCode;
 
+import lombok.Getter;
+
 @Getter
 public enum ErrorCode {
     UNCATEGORIZED_EXCEPTION(9999, "Uncategorized error", HttpStatus.INTERNAL_SERVER_ERROR),
@@ -17,8 +18,11 @@ public enum ErrorCode {
     INVALID_DOB(1008, "Your age must be at least {min}", HttpStatus.BAD_REQUEST),
     ALREADY_CHECKED(1009, "You already checked in", HttpStatus.BAD_REQUEST),
     NOT_ON_TIME(1010, "You are not checking on time", HttpStatus.BAD_REQUEST),
-    REWARD_NOT_FOUND(1010, "Reward is not found", HttpStatus.BAD_REQUEST)
-    ;
+    REWARD_NOT_FOUND(1010, "Reward is not found", HttpStatus.BAD_REQUEST),
+    SERVICE_BUSY(1011, "Service is busy, please try again later", HttpStatus.SERVICE_UNAVAILABLE),
+    TOO_MANY_REQUESTS(1012, "Too many requests, please try again later", HttpStatus.TOO_MANY_REQUESTS),
+    CHECK_IN_IN_PROGRESS(1013, "Your check-in is being processed, please try again shortly", HttpStatus.CONFLICT),
+    INVALID_DATE_RANGE(1014, "Date range must be in order and at most 366 days", HttpStatus.BAD_REQUEST);
 
     ErrorCode(int code, String message, HttpStatusCode statusCode) {
         this.code = code;
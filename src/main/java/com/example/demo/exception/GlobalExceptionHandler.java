@@ -1,16 +1,16 @@
 package com.example.demo.exception;
 
-import com.example.demo.dto.response.ApiResponse;
-import jakarta.validation.ConstraintViolation;
-import lombok.extern.slf4j.Slf4j;
+import java.util.Map;
+
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
-import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
-import java.util.Map;
-import java.util.Objects;
+import com.example.demo.dto.response.ApiResponse;
+
+import lombok.extern.slf4j.Slf4j;
 
 @ControllerAdvice
 @Slf4j
@@ -36,7 +36,11 @@ public class GlobalExceptionHandler {
         apiResponse.setCode(errorCode.getCode());
         apiResponse.setMessage(errorCode.getMessage());
 
-        return ResponseEntity.status(errorCode.getStatusCode()).body(apiResponse);
+        var response = ResponseEntity.status(errorCode.getStatusCode());
+        if (exception.getRetryAfterSeconds() >= 0) {
+            response.header(HttpHeaders.RETRY_AFTER, String.valueOf(exception.getRetryAfterSeconds()));
+        }
+        return response.body(apiResponse);
     }
 
     @ExceptionHandler(value = AccessDeniedException.class)
@@ -1,9 +1,10 @@
 package com.example.demo.mapper;
 
+import org.mapstruct.Mapper;
+
 import com.example.demo.dto.request.PermissionRequest;
 import com.example.demo.dto.response.PermissionResponse;
 import com.example.demo.entity.Permission;
-import org.mapstruct.Mapper;
 
 @Mapper(componentModel = "spring")
 public interface PermissionMapper {
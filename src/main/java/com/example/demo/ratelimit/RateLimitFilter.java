@@ -0,0 +1,62 @@
+package com.example.demo.ratelimit;
+
+import java.io.IOException;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.example.demo.dto.response.ApiResponse;
+import com.example.demo.exception.ErrorCode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Runs after bearer token authentication so authenticated requests are also limited by subject.
+ * Not a bean on purpose: Spring Boot would register it a second time outside the security chain.
+ *
+ * <p>Per-ip buckets use {@code request.getRemoteAddr()}, which is the real client address only
+ * because {@code server.forward-headers-strategy} resolves it from trusted proxies' forwarded
+ * headers; without that every client behind a load balancer would share one bucket.
+ */
+@RequiredArgsConstructor
+public class RateLimitFilter extends OncePerRequestFilter {
+    private final RateLimiter rateLimiter;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        String subject = authentication instanceof JwtAuthenticationToken ? authentication.getName() : null;
+
+        RateLimiter.Decision decision = rateLimiter.tryAcquire(request, subject);
+        if (decision.allowed()) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        ErrorCode errorCode = ErrorCode.TOO_MANY_REQUESTS;
+
+        response.setStatus(errorCode.getStatusCode().value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(decision.retryAfterSeconds()));
+
+        ApiResponse<?> apiResponse = ApiResponse.builder()
+                .code(errorCode.getCode())
+                .message(errorCode.getMessage())
+                .build();
+
+        response.getWriter().write(objectMapper.writeValueAsString(apiResponse));
+        response.flushBuffer();
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.demo.ratelimit;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.experimental.FieldDefaults;
+
+@Data
+@FieldDefaults(level = AccessLevel.PRIVATE)
+@ConfigurationProperties(prefix = "rate-limit")
+public class RateLimitProperties {
+    boolean enabled = true;
+    long syncInterval = 500; // in milliseconds
+    int stripes = 64;
+    long maximumBuckets = 100_000;
+    List<Route> routes = new ArrayList<>();
+
+    @Data
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    public static class Route {
+        String name;
+        String method;
+        String path;
+        Limit perIp;
+        Limit perSubject;
+    }
+
+    @Data
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    public static class Limit {
+        long capacity;
+        long period; // in seconds, time to refill an empty bucket
+    }
+}
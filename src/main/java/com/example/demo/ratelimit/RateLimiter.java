@@ -0,0 +1,306 @@
+package com.example.demo.ratelimit;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+
+import org.redisson.api.RBatch;
+import org.redisson.api.RFuture;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Token buckets per route and client IP or token subject. Decisions are made against local
+ * buckets guarded by striped locks; every sync interval the buckets used since the last sync send
+ * what they consumed to a shared bucket in Redis and take its balance back, so all nodes converge
+ * on one budget without a Redis call per request. Between syncs the cluster can overshoot a limit
+ * by at most what each node admits in one interval.
+ */
+@Component
+@EnableConfigurationProperties(RateLimitProperties.class)
+@RequiredArgsConstructor
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class RateLimiter {
+    static String BUCKET_PREFIX = "rateLimit:";
+
+    static String SYNC_SCRIPT = "local state = redis.call('hmget', KEYS[1], 'tokens', 'ts') "
+            + "local capacity = tonumber(ARGV[1]) "
+            + "local now = tonumber(ARGV[3]) "
+            + "local tokens = tonumber(state[1]) or capacity "
+            + "local ts = tonumber(state[2]) or now "
+            + "tokens = math.min(capacity, tokens + math.max(0, now - ts) * tonumber(ARGV[2])) - tonumber(ARGV[4]) "
+            + "if tokens < 0 then tokens = 0 end "
+            + "redis.call('hset', KEYS[1], 'tokens', tostring(tokens), 'ts', tostring(math.max(ts, now))) "
+            + "redis.call('pexpire', KEYS[1], ARGV[5]) "
+            + "return tostring(tokens)";
+
+    RateLimitProperties properties;
+    RedissonClient redissonClient;
+    MeterRegistry meterRegistry;
+
+    List<RouteLimit> routes = new ArrayList<>();
+
+    @NonFinal
+    @Setter(AccessLevel.PACKAGE)
+    Clock clock = Clock.systemUTC();
+
+    @NonFinal
+    Cache<String, LocalBucket> buckets;
+
+    @NonFinal
+    Object[] stripes;
+
+    @NonFinal
+    ScheduledExecutorService syncer;
+
+    public Decision tryAcquire(HttpServletRequest request, String subject) {
+        if (!properties.isEnabled()) {
+            return Decision.ALLOWED;
+        }
+
+        for (RouteLimit route : routes) {
+            if (!route.matcher().matches(request)) {
+                continue;
+            }
+
+            long now = clock.millis();
+            LocalBucket ipBucket = null;
+            if (route.config().getPerIp() != null) {
+                ipBucket = getBucket(
+                        route, "ip", request.getRemoteAddr(), route.config().getPerIp());
+                long waitMillis = consume(ipBucket, now);
+                if (waitMillis > 0) {
+                    route.ipRejections().increment();
+                    return Decision.rejected(waitMillis);
+                }
+            }
+            if (route.config().getPerSubject() != null && subject != null) {
+                LocalBucket subjectBucket =
+                        getBucket(route, "sub", subject, route.config().getPerSubject());
+                long waitMillis = consume(subjectBucket, now);
+                if (waitMillis > 0) {
+                    if (ipBucket != null) {
+                        refund(ipBucket);
+                    }
+                    route.subjectRejections().increment();
+                    return Decision.rejected(waitMillis);
+                }
+            }
+            return Decision.ALLOWED;
+        }
+        return Decision.ALLOWED;
+    }
+
+    @PostConstruct
+    void start() {
+        stripes = new Object[properties.getStripes()];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Object();
+        }
+
+        long longestPeriod = 0;
+        for (RateLimitProperties.Route route : properties.getRoutes()) {
+            routes.add(new RouteLimit(
+                    route,
+                    new AntPathRequestMatcher(route.getPath(), route.getMethod()),
+                    rejections(route, "ip"),
+                    rejections(route, "subject")));
+            longestPeriod = Math.max(longestPeriod, period(route.getPerIp()));
+            longestPeriod = Math.max(longestPeriod, period(route.getPerSubject()));
+        }
+
+        // an idle bucket is full again after one period, so there is nothing worth keeping after that
+        buckets = Caffeine.newBuilder()
+                .maximumSize(properties.getMaximumBuckets())
+                .expireAfterAccess(Duration.ofSeconds(Math.max(longestPeriod, 1)))
+                .build();
+
+        if (!properties.isEnabled() || routes.isEmpty()) {
+            return;
+        }
+        syncer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "rate-limit-sync");
+            thread.setDaemon(true);
+            return thread;
+        });
+        syncer.scheduleWithFixedDelay(
+                this::sync, properties.getSyncInterval(), properties.getSyncInterval(), TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (syncer != null) {
+            syncer.shutdownNow();
+        }
+    }
+
+    void sync() {
+        List<LocalBucket> touched = new ArrayList<>();
+        List<Long> consumed = new ArrayList<>();
+        for (LocalBucket bucket : buckets.asMap().values()) {
+            synchronized (stripe(bucket.key)) {
+                if (!bucket.touched) {
+                    continue;
+                }
+                touched.add(bucket);
+                consumed.add(bucket.unsynced);
+                bucket.touched = false;
+                bucket.unsynced = 0;
+            }
+        }
+        if (touched.isEmpty()) {
+            return;
+        }
+
+        long now = clock.millis();
+        List<RFuture<String>> results = new ArrayList<>(touched.size());
+        try {
+            RBatch batch = redissonClient.createBatch();
+            for (int i = 0; i < touched.size(); i++) {
+                LocalBucket bucket = touched.get(i);
+                results.add(batch.getScript(StringCodec.INSTANCE)
+                        .evalAsync(
+                                RScript.Mode.READ_WRITE,
+                                SYNC_SCRIPT,
+                                RScript.ReturnType.VALUE,
+                                List.<Object>of(bucket.key),
+                                String.valueOf(bucket.capacity),
+                                String.valueOf(bucket.tokensPerMilli),
+                                String.valueOf(now),
+                                String.valueOf(consumed.get(i)),
+                                String.valueOf(bucket.periodMillis)));
+            }
+            batch.execute();
+        } catch (Exception e) {
+            log.warn("Failed to sync rate limit buckets, deciding locally until the next sync", e);
+            for (int i = 0; i < touched.size(); i++) {
+                LocalBucket bucket = touched.get(i);
+                synchronized (stripe(bucket.key)) {
+                    bucket.unsynced += consumed.get(i);
+                    bucket.touched = true;
+                }
+            }
+            return;
+        }
+
+        for (int i = 0; i < touched.size(); i++) {
+            LocalBucket bucket = touched.get(i);
+            double remote =
+                    Double.parseDouble(results.get(i).toCompletableFuture().join());
+            synchronized (stripe(bucket.key)) {
+                // keep what was consumed here while the batch was in flight
+                bucket.tokens = Math.max(0, remote - bucket.unsynced);
+                bucket.refilledAt = now;
+            }
+        }
+    }
+
+    private LocalBucket getBucket(RouteLimit route, String kind, String id, RateLimitProperties.Limit limit) {
+        String key = BUCKET_PREFIX + route.config().getName() + ":" + kind + ":" + id;
+        return buckets.get(key, ignored -> new LocalBucket(key, limit, clock.millis()));
+    }
+
+    private long consume(LocalBucket bucket, long now) {
+        synchronized (stripe(bucket.key)) {
+            bucket.refill(now);
+            bucket.touched = true;
+            if (bucket.tokens >= 1) {
+                bucket.tokens -= 1;
+                bucket.unsynced++;
+                return 0;
+            }
+            return (long) Math.ceil((1 - bucket.tokens) / bucket.tokensPerMilli);
+        }
+    }
+
+    private void refund(LocalBucket bucket) {
+        synchronized (stripe(bucket.key)) {
+            bucket.tokens = Math.min(bucket.capacity, bucket.tokens + 1);
+            bucket.unsynced--;
+        }
+    }
+
+    private Object stripe(String key) {
+        return stripes[Math.floorMod(key.hashCode(), stripes.length)];
+    }
+
+    private Counter rejections(RateLimitProperties.Route route, String limit) {
+        return Counter.builder("ratelimit.rejected")
+                .description("Requests rejected by the rate limiter")
+                .tag("route", route.getName())
+                .tag("limit", limit)
+                .register(meterRegistry);
+    }
+
+    private static long period(RateLimitProperties.Limit limit) {
+        return limit == null ? 0 : limit.getPeriod();
+    }
+
+    public record Decision(boolean allowed, long retryAfterSeconds) {
+        static final Decision ALLOWED = new Decision(true, 0);
+
+        static Decision rejected(long waitMillis) {
+            return new Decision(false, Math.max(1, TimeUnit.MILLISECONDS.toSeconds(waitMillis + 999)));
+        }
+    }
+
+    private record RouteLimit(
+            RateLimitProperties.Route config,
+            AntPathRequestMatcher matcher,
+            Counter ipRejections,
+            Counter subjectRejections) {}
+
+    /** Guarded by the stripe lock of its key. */
+    private static class LocalBucket {
+        final String key;
+        final double capacity;
+        final double tokensPerMilli;
+        final long periodMillis;
+
+        double tokens;
+        long refilledAt;
+        long unsynced;
+        boolean touched;
+
+        LocalBucket(String key, RateLimitProperties.Limit limit, long now) {
+            this.key = key;
+            this.capacity = limit.getCapacity();
+            this.periodMillis = TimeUnit.SECONDS.toMillis(limit.getPeriod());
+            this.tokensPerMilli = capacity / periodMillis;
+            this.tokens = capacity;
+            this.refilledAt = now;
+        }
+
+        void refill(long now) {
+            if (now > refilledAt) {
+                tokens = Math.min(capacity, tokens + (now - refilledAt) * tokensPerMilli);
+                refilledAt = now;
+            }
+        }
+    }
+}
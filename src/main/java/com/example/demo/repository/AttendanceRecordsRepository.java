@@ -1,26 +1,41 @@
 package com.example.demo.repository;
 
-import com.example.demo.entity.AttendanceRecords;
-import com.example.demo.entity.User;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
-import java.time.LocalDate;
-import java.util.List;
-import java.util.Optional;
+import com.example.demo.dto.response.RewardHistoryResponse;
+import com.example.demo.entity.AttendanceRecords;
+import com.example.demo.entity.User;
 
 public interface AttendanceRecordsRepository extends JpaRepository<AttendanceRecords, Integer> {
     boolean existsAttendanceRecordsByUserAndAndAttendanceDate(User user, LocalDate attendanceDate);
 
+    boolean existsByUserIdAndAttendanceDate(String userId, LocalDate attendanceDate);
+
     List<AttendanceRecords> findByUserId(String user);
 
-    @Query(value = "SELECT * FROM attendance_records WHERE user_id = :userId AND DATE(attendance_date) BETWEEN DATE(:startDate) AND DATE(:endDate)",
-            nativeQuery = true)
+    @Query("SELECT new com.example.demo.dto.response.RewardHistoryResponse(a.attendanceDate, a.rewardAmount) "
+            + "FROM AttendanceRecords a WHERE a.user.id = :userId ORDER BY a.attendanceDate DESC")
+    List<RewardHistoryResponse> findRewardHistory(@Param("userId") String userId, Pageable pageable);
+
+    @Query("SELECT new com.example.demo.dto.response.RewardHistoryResponse(a.attendanceDate, a.rewardAmount) "
+            + "FROM AttendanceRecords a WHERE a.user.id = :userId AND a.attendanceDate < :cursor "
+            + "ORDER BY a.attendanceDate DESC")
+    List<RewardHistoryResponse> findRewardHistoryBefore(
+            @Param("userId") String userId, @Param("cursor") LocalDate cursor, Pageable pageable);
+
+    @Query("SELECT a.user.id FROM AttendanceRecords a WHERE a.attendanceDate = :date")
+    List<String> findUserIdsByAttendanceDate(@Param("date") LocalDate date);
+
+    @Query("SELECT a FROM AttendanceRecords a WHERE a.user.id = :userId "
+            + "AND a.attendanceDate >= :startDate AND a.attendanceDate <= :endDate")
     List<AttendanceRecords> findByUserIdAndAttendanceDateBetween(
             @Param("userId") String userId,
-            @Param("startDate") String startDate,
-            @Param("endDate") String endDate
-    );
-
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
 }
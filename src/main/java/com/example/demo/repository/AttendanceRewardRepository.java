@@ -1,11 +1,12 @@
 package com.example.demo.repository;
 
-import com.example.demo.entity.AttendanceReward;
-import org.springframework.data.jpa.repository.JpaRepository;
-
 import java.time.LocalDate;
 import java.util.Optional;
 
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import com.example.demo.entity.AttendanceReward;
+
 public interface AttendanceRewardRepository extends JpaRepository<AttendanceReward, Integer> {
     Optional<AttendanceReward> findAttendanceRewardsByRewardDate(LocalDate date);
 }
@@ -1,8 +1,22 @@
 package com.example.demo.repository;
 
-import com.example.demo.entity.InvalidatedToken;
+import java.util.Date;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import com.example.demo.entity.InvalidatedToken;
+
 @Repository
-public interface InvalidatedTokenRepository extends JpaRepository<InvalidatedToken, String> {}
+public interface InvalidatedTokenRepository extends JpaRepository<InvalidatedToken, String> {
+    @Query("SELECT t.id FROM InvalidatedToken t WHERE t.expiryTime > :now")
+    List<String> findActiveIds(@Param("now") Date now);
+
+    @Modifying
+    @Query("DELETE FROM InvalidatedToken t WHERE t.expiryTime <= :now")
+    int deleteExpired(@Param("now") Date now);
+}
@@ -1,8 +1,9 @@
 package com.example.demo.repository;
 
-import com.example.demo.entity.Permission;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import com.example.demo.entity.Permission;
+
 @Repository
 public interface PermissionRepository extends JpaRepository<Permission, String> {}
@@ -1,8 +1,15 @@
 package com.example.demo.repository;
 
-import com.example.demo.entity.Role;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import com.example.demo.entity.Role;
+
 @Repository
-public interface RoleRepository extends JpaRepository<Role, String> {}
+public interface RoleRepository extends JpaRepository<Role, String> {
+    @Query("SELECT DISTINCT r FROM Role r LEFT JOIN FETCH r.permissions")
+    List<Role> findAllWithPermissions();
+}
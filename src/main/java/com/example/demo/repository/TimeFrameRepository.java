@@ -1,7 +1,7 @@
 package com.example.demo.repository;
 
-import com.example.demo.entity.TimeFrame;
 import org.springframework.data.jpa.repository.JpaRepository;
 
-public interface TimeFrameRepository extends JpaRepository<TimeFrame, Integer> {
-}
+import com.example.demo.entity.TimeFrame;
+
+public interface TimeFrameRepository extends JpaRepository<TimeFrame, Integer> {}
@@ -1,14 +1,39 @@
 package com.example.demo.repository;
 
-import com.example.demo.entity.User;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Optional;
+import com.example.demo.entity.User;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, String> {
     boolean existsByUsername(String username);
 
     Optional<User> findByUsername(String username);
+
+    @EntityGraph(attributePaths = "roles")
+    Optional<User> findWithRolesByUsername(String username);
+
+    @Modifying
+    @Query("UPDATE User u SET u.lotus = u.lotus + :amount WHERE u.id = :id")
+    int addLotus(@Param("id") String id, @Param("amount") int amount);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE User u SET u.password = :password WHERE u.id = :id")
+    int updatePassword(@Param("id") String id, @Param("password") String password);
+
+    @Query("SELECT u.username FROM User u JOIN u.roles r WHERE r.name = :role")
+    List<String> findUsernamesByRole(@Param("role") String role);
+
+    @Query("SELECT u.lotus FROM User u WHERE u.id = :id")
+    Optional<Integer> findLotusById(@Param("id") String id);
 }
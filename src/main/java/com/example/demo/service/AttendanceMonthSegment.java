@@ -0,0 +1,86 @@
+package com.example.demo.service;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Collection;
+
+import com.example.demo.dto.response.AttendanceRecordResponse;
+import com.example.demo.entity.AttendanceRecords;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * One user's attendance for one calendar month: a bitmask of checked days and the reward of each
+ * checked day. Cached as a format byte, the mask and then one int per checked day in day order,
+ * which is a few dozen bytes instead of one JSON object per day.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class AttendanceMonthSegment {
+    static byte FORMAT = 1;
+
+    int checkedMask;
+    int[] rewards;
+
+    private AttendanceMonthSegment(int checkedMask, int[] rewards) {
+        this.checkedMask = checkedMask;
+        this.rewards = rewards;
+    }
+
+    static AttendanceMonthSegment of(Collection<AttendanceRecords> records) {
+        int mask = 0;
+        int[] rewards = new int[31];
+        for (AttendanceRecords record : records) {
+            int day = record.getAttendanceDate().getDayOfMonth() - 1;
+            mask |= 1 << day;
+            rewards[day] = record.getRewardAmount();
+        }
+        return new AttendanceMonthSegment(mask, rewards);
+    }
+
+    /** Returns null for bytes in a format this version does not know. */
+    public static AttendanceMonthSegment decode(byte[] value) {
+        if (value == null || value.length < 5 || value[0] != FORMAT) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(value, 1, value.length - 1);
+        int mask = buffer.getInt();
+        int[] rewards = new int[31];
+
+        for (int day = 0; day < 31 && buffer.remaining() >= Integer.BYTES; day++) {
+            if ((mask & (1 << day)) != 0) {
+                rewards[day] = buffer.getInt();
+            }
+        }
+        return new AttendanceMonthSegment(mask, rewards);
+    }
+
+    public byte[] encode() {
+        ByteBuffer buffer = ByteBuffer.allocate(1 + Integer.BYTES * (1 + Integer.bitCount(checkedMask)));
+        buffer.put(FORMAT).putInt(checkedMask);
+        for (int day = 0; day < 31; day++) {
+            if ((checkedMask & (1 << day)) != 0) {
+                buffer.putInt(rewards[day]);
+            }
+        }
+        return buffer.array();
+    }
+
+    AttendanceRecordResponse toResponse(LocalDate date) {
+        int day = date.getDayOfMonth() - 1;
+        boolean checked = (checkedMask & (1 << day)) != 0;
+        return AttendanceRecordResponse.builder()
+                .isChecked(checked)
+                .attendanceDate(date)
+                .rewardAmount(checked ? rewards[day] : 0)
+                .build();
+    }
+
+    public record Key(String userId, YearMonth month) {
+        @Override
+        public String toString() {
+            return userId + ":" + month;
+        }
+    }
+}
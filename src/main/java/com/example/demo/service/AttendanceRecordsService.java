@@ -1,10 +1,44 @@
 package com.example.demo.service;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import jakarta.transaction.Transactional;
+
+import org.redisson.api.RBatch;
+import org.redisson.api.RedissonClient;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.demo.cache.CacheRegion;
 import com.example.demo.dto.response.AttendanceRecordResponse;
+import com.example.demo.dto.response.RewardHistoryPageResponse;
 import com.example.demo.dto.response.RewardHistoryResponse;
+import com.example.demo.dto.response.UserResponse;
 import com.example.demo.entity.AttendanceRecords;
 import com.example.demo.entity.AttendanceReward;
-import com.example.demo.entity.TimeFrame;
+import com.example.demo.entity.AuditEvent;
 import com.example.demo.entity.User;
 import com.example.demo.exception.AppException;
 import com.example.demo.exception.ErrorCode;
@@ -12,29 +46,11 @@ import com.example.demo.repository.AttendanceRecordsRepository;
 import com.example.demo.repository.AttendanceRewardRepository;
 import com.example.demo.repository.TimeFrameRepository;
 import com.example.demo.repository.UserRepository;
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import jakarta.transaction.Transactional;
+
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
-import org.redisson.api.RLock;
-import org.redisson.api.RMapCache;
-import org.redisson.api.RedissonClient;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.stereotype.Service;
-
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.LocalTime;
-import java.time.temporal.ChronoUnit;
-import java.util.Comparator;
-import java.util.List;
-import java.util.Map;
-import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -46,212 +62,253 @@ public class AttendanceRecordsService {
     TimeFrameRepository timeFrameRepository;
     AttendanceRewardRepository attendanceRewardRepository;
     RedissonClient redissonClient;
-    ObjectMapper objectMapper;
     CacheService cacheService;
-
-    static String CACHE_PREFIX = "attendance:";
-    static long CACHE_TTL = 1;
+    CacheRegion<String, UserResponse> userInfoRegion;
+    CacheRegion<String, RewardHistoryPageResponse> rewardHistoryRegion;
+    CacheRegion<AttendanceMonthSegment.Key, AttendanceMonthSegment> attendanceRegion;
+    CheckInStore checkInStore;
+    CheckInWindowService checkInWindowService;
+    AttendanceWriteBehindService attendanceWriteBehindService;
+    LotusService lotusService;
+    JdbcTemplate jdbcTemplate;
+    AuditTrailService auditTrailService;
+
+    static int DEFAULT_HISTORY_PAGE_SIZE = 20;
+    static int MAX_HISTORY_PAGE_SIZE = 100;
+    static int MAX_LIST_DAYS = 366;
 
     @Transactional
     public AttendanceRecords markAttendance() {
         var context = SecurityContextHolder.getContext();
         String name = context.getAuthentication().getName();
-        User user = cacheService.getUserFromCache(name);
 
         LocalDate today = LocalDate.now();
-        String cacheKey = "attendance:checked:" + user.getId() + ":" + today;
-        RMapCache<String, String> mapCache = redissonClient.getMapCache("attendanceCache");
+        LocalTime now = LocalTime.now();
+        // checked locally first so out-of-window requests never reach Redis
+        if (!checkInWindowService.isOpen(now)) {
+            throw new AppException(ErrorCode.NOT_ON_TIME, checkInWindowService.secondsUntilNextOpen(now));
+        }
+        User user = cacheService.getUserFromCache(name);
 
-        if (Boolean.TRUE.toString().equals(mapCache.get(cacheKey))) {
+        String claimToken = UUID.randomUUID().toString();
+        CheckInStore.Claim claim = checkInStore.tryClaim(user.getId(), today, claimToken);
+        if (claim == CheckInStore.Claim.ALREADY_CHECKED) {
             throw new AppException(ErrorCode.ALREADY_CHECKED);
         }
-
-        String lockKey = "lock:attendance:" + user.getId() + ":" + today;
-        RLock lock = redissonClient.getLock(lockKey);
-        boolean locked = false;
+        if (claim == CheckInStore.Claim.IN_PROGRESS) {
+            throw new AppException(ErrorCode.CHECK_IN_IN_PROGRESS, 1);
+        }
+        boolean completed = false;
 
         try {
-            locked = lock.tryLock(5, 10, TimeUnit.SECONDS);
-            if (!locked) {
-                throw new AppException(ErrorCode.UNCATEGORIZED_EXCEPTION);
-            }
-
-            if (attendanceRecordsRepository.existsAttendanceRecordsByUserAndAndAttendanceDate(user, today)) {
-                mapCache.put(cacheKey, Boolean.TRUE.toString(), 1, TimeUnit.DAYS);
-                throw new AppException(ErrorCode.ALREADY_CHECKED);
-            }
-
-            List<TimeFrame> timeFrames = cacheService.getTimeFramesFromCache();
-            LocalTime now = LocalTime.now();
-            boolean isOnTime = timeFrames.stream()
-                    .anyMatch(timeFrame -> !now.isBefore(timeFrame.getStart()) && now.isAfter(timeFrame.getEnd()));
-
-            if (!isOnTime) {
-                throw new AppException(ErrorCode.NOT_ON_TIME);
-            }
-
             AttendanceReward attendanceReward = cacheService.getAttendanceRewardFromCache(today);
 
             AttendanceRecords record = AttendanceRecords.builder()
-                    .user(user)
+                    .user(userRepository.getReferenceById(user.getId()))
                     .attendanceDate(today)
                     .rewardAmount(attendanceReward.getRewardAmount())
                     .checkedInAt(LocalDateTime.now())
                     .build();
-            user.setLotus(user.getLotus() + attendanceReward.getRewardAmount());
-            userRepository.save(user);
-            String jsonData = objectMapper.writeValueAsString(user);
-            mapCache.put("user:" + name,jsonData , 1, TimeUnit.DAYS);
-            mapCache.put(cacheKey, Boolean.TRUE.toString(), 1, TimeUnit.DAYS);
-            mapCache.put("reward:" + user.getId() + ":" + today, Integer.toString(attendanceReward.getRewardAmount()), 1, TimeUnit.DAYS);
-
-            mapCache.keySet().stream()
-                    .filter(key -> key.contains(user.getId()) && key.contains("attendance"))
-                    .forEach(mapCache::remove);
-            mapCache.remove("rewardHistory:" + user.getId());
-
-            log.info("Invalidated cache for user {} on date {}", user.getId(), today);
-
-            return attendanceRecordsRepository.save(record);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            log.error("Thread was interrupted", e);
-            throw new AppException(ErrorCode.UNCATEGORIZED_EXCEPTION);
+            // the balance only changes in the database; the cached user is evicted after commit
+            if (attendanceWriteBehindService.isEnabled()) {
+                attendanceWriteBehindService.enqueue(user, record);
+            } else {
+                lotusService.credit(user.getId(), attendanceReward.getRewardAmount());
+                record = attendanceRecordsRepository.saveAndFlush(record);
+            }
+            int rewardAmount = attendanceReward.getRewardAmount();
+            afterCommit(() -> {
+                updateCachesAfterCheckIn(user, today);
+                auditTrailService.publish(AuditEvent.Type.CHECK_IN, name, String.valueOf(rewardAmount));
+            });
+
+            completed = true;
+            return record;
+        } catch (AppException e) {
+            throw e;
+        } catch (DataIntegrityViolationException e) {
+            // the unique index caught a check-in the bitmap did not know about
+            markCheckedIn(user, today);
+            throw new AppException(ErrorCode.ALREADY_CHECKED);
         } catch (Exception e) {
             log.error("Error processing attendance", e);
             throw new AppException(ErrorCode.UNCATEGORIZED_EXCEPTION);
         } finally {
-            if (locked) {
-                lock.unlock();
+            if (!completed) {
+                checkInStore.releaseClaim(user.getId(), today, claimToken);
             }
         }
     }
 
+    /**
+     * Sends every post-check-in Redis write as one pipelined batch. The claim taken in
+     * markAttendance stays until it expires, so the check-in cannot be repeated before the bitmap
+     * is marked.
+     */
+    private void updateCachesAfterCheckIn(User user, LocalDate today) {
+        try {
+            RBatch batch = redissonClient.createBatch();
+            cacheService.evictUserFromCache(batch, user.getUsername());
+            userInfoRegion.evict(batch, user.getUsername());
+            checkInStore.markCheckedIn(batch, user.getId(), today);
+            attendanceRegion.evict(batch, new AttendanceMonthSegment.Key(user.getId(), YearMonth.from(today)));
+            rewardHistoryRegion.evict(batch, user.getId());
+            batch.execute();
+
+            log.info("Invalidated cache for user {} on date {}", user.getId(), today);
+        } catch (Exception e) {
+            log.error("Failed to update caches after check-in of user {} on {}", user.getId(), today, e);
+            // without the bitmap mark a second check-in passes tryClaim once the claim expires
+            markCheckedIn(user, today);
+        }
+    }
+
+    private void markCheckedIn(User user, LocalDate today) {
+        try {
+            checkInStore.markCheckedIn(user.getId(), today);
+        } catch (Exception e) {
+            log.error("Failed to mark check-in of user {} on {}", user.getId(), today, e);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    public long countChecking(LocalDate date) {
+        return checkInStore.countCheckedIn(date);
+    }
 
     public List<AttendanceRecordResponse> getListChecking(LocalDate startDate, LocalDate endDate) {
+        if (startDate.isAfter(endDate) || ChronoUnit.DAYS.between(startDate, endDate) >= MAX_LIST_DAYS) {
+            throw new AppException(ErrorCode.INVALID_DATE_RANGE);
+        }
         var context = SecurityContextHolder.getContext();
         String name = context.getAuthentication().getName();
 
         User user = cacheService.getUserFromCache(name);
-        String cacheKey = CACHE_PREFIX + user.getId() + ":" + startDate + ":" + endDate;
-        RMapCache<String, String> mapCache = redissonClient.getMapCache("attendanceCache");
 
         try {
-            if (mapCache.containsKey(cacheKey)) {
-                log.info("Fetching from Redis: {}", cacheKey);
-                String jsonData = mapCache.get(cacheKey);
-                return objectMapper.readValue(jsonData, new TypeReference<List<AttendanceRecordResponse>>() {});
-            }
-
-            String lockKey = "lock:" + cacheKey;
-            RLock lock = redissonClient.getLock(lockKey);
-            boolean locked = false;
-
-            try {
-                locked = lock.tryLock(5, 10, TimeUnit.SECONDS);
-                if (!locked) {
-                    log.info("Waiting for cache to be updated...");
-                    Thread.sleep(500);
-                    if (mapCache.containsKey(cacheKey)) {
-                        return objectMapper.readValue(mapCache.get(cacheKey), new TypeReference<List<AttendanceRecordResponse>>() {});
-                    } else {
-                        throw new AppException(ErrorCode.UNCATEGORIZED_EXCEPTION);
-                    }
-                }
-
-                log.info("Fetching from DB and caching: {}", cacheKey);
-                Map<LocalDate, AttendanceRecords> attendanceRecords = attendanceRecordsRepository
-                        .findByUserIdAndAttendanceDateBetween(user.getId(), startDate.toString(), endDate.toString())
-                        .stream()
-                        .collect(Collectors.toMap(AttendanceRecords::getAttendanceDate, record -> record));
-
-                List<AttendanceRecordResponse> response = Stream.iterate(startDate, date -> date.plusDays(1))
-                        .limit(ChronoUnit.DAYS.between(startDate, endDate) + 1)
-                        .map(date -> {
-                            AttendanceRecords attendanceRecord = attendanceRecords.get(date);
-                            return AttendanceRecordResponse.builder()
-                                    .isChecked(attendanceRecord != null)
-                                    .attendanceDate(date)
-                                    .rewardAmount(attendanceRecord != null ? attendanceRecord.getRewardAmount() : 0)
-                                    .build();
-                        })
-                        .toList();
-
-                String jsonData = objectMapper.writeValueAsString(response);
-                mapCache.put(cacheKey, jsonData, CACHE_TTL, TimeUnit.DAYS);
-
-                return response;
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                log.error("Thread was interrupted", e);
-                throw new AppException(ErrorCode.UNCATEGORIZED_EXCEPTION);
-            } catch (Exception e) {
-                log.error("Error processing attendance history", e);
-                throw new AppException(ErrorCode.UNCATEGORIZED_EXCEPTION);
-            } finally {
-                if (locked) {
-                    lock.unlock();
-                }
-            }
+            List<AttendanceMonthSegment.Key> months = Stream.iterate(
+                            YearMonth.from(startDate), month -> month.plusMonths(1))
+                    .limit(ChronoUnit.MONTHS.between(YearMonth.from(startDate), YearMonth.from(endDate)) + 1)
+                    .map(month -> new AttendanceMonthSegment.Key(user.getId(), month))
+                    .toList();
+            Map<AttendanceMonthSegment.Key, AttendanceMonthSegment> segments =
+                    attendanceRegion.getAll(months, this::loadMonthSegments);
+
+            return Stream.iterate(startDate, date -> date.plusDays(1))
+                    .limit(ChronoUnit.DAYS.between(startDate, endDate) + 1)
+                    .map(date -> segments.get(new AttendanceMonthSegment.Key(user.getId(), YearMonth.from(date)))
+                            .toResponse(date))
+                    .toList();
+        } catch (AppException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error processing attendance history", e);
             throw new AppException(ErrorCode.UNCATEGORIZED_EXCEPTION);
         }
     }
 
+    private Map<AttendanceMonthSegment.Key, AttendanceMonthSegment> loadMonthSegments(
+            Collection<AttendanceMonthSegment.Key> keys) {
+        String userId = keys.iterator().next().userId();
+        YearMonth first = keys.stream()
+                .map(AttendanceMonthSegment.Key::month)
+                .min(YearMonth::compareTo)
+                .orElseThrow();
+        YearMonth last = keys.stream()
+                .map(AttendanceMonthSegment.Key::month)
+                .max(YearMonth::compareTo)
+                .orElseThrow();
+
+        log.info("Fetching from DB and caching {} months for user {}", keys.size(), userId);
+        Map<YearMonth, List<AttendanceRecords>> records =
+                attendanceRecordsRepository
+                        .findByUserIdAndAttendanceDateBetween(userId, first.atDay(1), last.atEndOfMonth())
+                        .stream()
+                        .collect(Collectors.groupingBy(record -> YearMonth.from(record.getAttendanceDate())));
+
+        Map<AttendanceMonthSegment.Key, AttendanceMonthSegment> loaded = new HashMap<>();
+        for (AttendanceMonthSegment.Key key : keys) {
+            loaded.put(key, AttendanceMonthSegment.of(records.getOrDefault(key.month(), List.of())));
+        }
+        return loaded;
+    }
 
     public List<RewardHistoryResponse> getAllRewardHistory() {
         var context = SecurityContextHolder.getContext();
         String name = context.getAuthentication().getName();
 
         User user = cacheService.getUserFromCache(name);
-        String cacheKey = "rewardHistory:" + user.getId();
-        RMapCache<String, String> mapCache = redissonClient.getMapCache("rewardCache");
-
-        try {
-            if (mapCache.containsKey(cacheKey)) {
-                log.info("Fetching from Redis: {}", cacheKey);
-                String jsonData = mapCache.get(cacheKey);
-                return objectMapper.readValue(jsonData, new TypeReference<List<RewardHistoryResponse>>() {});
-            }
+        return attendanceRecordsRepository.findRewardHistory(user.getId(), Pageable.unpaged());
+    }
 
-            String lockKey = "lock:rewardHistory:" + user.getId();
-            RLock lock = redissonClient.getLock(lockKey);
-            boolean locked = false;
+    public RewardHistoryPageResponse getRewardHistory(LocalDate cursor, Integer size) {
+        var context = SecurityContextHolder.getContext();
+        String name = context.getAuthentication().getName();
 
-            try {
-                locked = lock.tryLock(5, 10, TimeUnit.SECONDS);
-                if (!locked) {
-                    throw new AppException(ErrorCode.UNCATEGORIZED_EXCEPTION);
-                }
+        User user = cacheService.getUserFromCache(name);
+        int pageSize = size == null ? DEFAULT_HISTORY_PAGE_SIZE : Math.min(Math.max(size, 1), MAX_HISTORY_PAGE_SIZE);
+        if (cursor != null || pageSize != DEFAULT_HISTORY_PAGE_SIZE) {
+            return loadRewardHistoryPage(user.getId(), cursor, pageSize);
+        }
 
-                if (mapCache.containsKey(cacheKey)) {
-                    log.info("Fetching from Redis after acquiring lock: {}", cacheKey);
-                    String jsonData = mapCache.get(cacheKey);
-                    return objectMapper.readValue(jsonData, new TypeReference<List<RewardHistoryResponse>>() {});
-                }
+        return rewardHistoryRegion.get(user.getId(), userId -> {
+            log.info("Fetching reward history from DB for user {}", userId);
+            return loadRewardHistoryPage(userId, null, pageSize);
+        });
+    }
 
-                log.info("Fetching from DB and caching: {}", cacheKey);
-                List<AttendanceRecords> records = attendanceRecordsRepository.findByUserId(user.getId());
+    public void exportRewardHistory(Writer writer) throws IOException {
+        var context = SecurityContextHolder.getContext();
+        String name = context.getAuthentication().getName();
 
-                List<RewardHistoryResponse> response = records.stream()
-                        .map(record -> new RewardHistoryResponse(record.getAttendanceDate(), record.getRewardAmount()))
-                        .sorted(Comparator.comparing(RewardHistoryResponse::getDate).reversed())
-                        .toList();
+        User user = cacheService.getUserFromCache(name);
+        writer.write("date,reward_amount\n");
+
+        // Integer.MIN_VALUE makes MySQL Connector/J stream rows instead of buffering the result set
+        jdbcTemplate.query(
+                connection -> {
+                    PreparedStatement statement = connection.prepareStatement(
+                            "SELECT attendance_date, reward_amount FROM attendance_records "
+                                    + "WHERE user_id = ? ORDER BY attendance_date DESC",
+                            ResultSet.TYPE_FORWARD_ONLY,
+                            ResultSet.CONCUR_READ_ONLY);
+                    statement.setFetchSize(Integer.MIN_VALUE);
+                    statement.setString(1, user.getId());
+                    return statement;
+                },
+                (ResultSet rs) -> {
+                    try {
+                        writer.write(rs.getObject(1, LocalDate.class) + "," + rs.getInt(2) + "\n");
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+        writer.flush();
+    }
 
-                String jsonData = objectMapper.writeValueAsString(response);
-                mapCache.put(cacheKey, jsonData, CACHE_TTL, TimeUnit.DAYS);
+    private RewardHistoryPageResponse loadRewardHistoryPage(String userId, LocalDate cursor, int pageSize) {
+        // fetch one extra row to know whether there is a next page
+        Pageable pageable = PageRequest.of(0, pageSize + 1);
+        List<RewardHistoryResponse> histories = cursor == null
+                ? attendanceRecordsRepository.findRewardHistory(userId, pageable)
+                : attendanceRecordsRepository.findRewardHistoryBefore(userId, cursor, pageable);
 
-                return response;
-            } finally {
-                if (locked) {
-                    lock.unlock();
-                }
-            }
-        } catch (Exception e) {
-            log.error("Error processing reward history", e);
-            throw new AppException(ErrorCode.UNCATEGORIZED_EXCEPTION);
+        if (histories.size() <= pageSize) {
+            return new RewardHistoryPageResponse(histories, null);
         }
+        List<RewardHistoryResponse> page = histories.subList(0, pageSize);
+        return new RewardHistoryPageResponse(page, page.get(pageSize - 1).getDate());
     }
-
 }
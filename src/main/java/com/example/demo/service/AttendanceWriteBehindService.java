@@ -0,0 +1,363 @@
+package com.example.demo.service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.redisson.api.RList;
+import org.redisson.api.RLock;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.example.demo.cache.CacheRegion;
+import com.example.demo.cache.LockMetrics;
+import com.example.demo.dto.response.RewardHistoryPageResponse;
+import com.example.demo.dto.response.UserResponse;
+import com.example.demo.entity.AttendanceRecords;
+import com.example.demo.entity.User;
+import com.example.demo.exception.AppException;
+import com.example.demo.exception.ErrorCode;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Opt-in write-behind path for check-ins. Accepted check-ins are appended to a Redis list and
+ * acknowledged; a single flusher (guarded by a distributed lock) drains the list in batches with one
+ * multi-row insert and one batched lotus update per flush. Entries are only trimmed from the list
+ * after the database transaction commits, and only while they are still its head, so whatever is
+ * left after a crash is replayed on startup.
+ *
+ * <p>When a batch violates a constraint (a deleted user, a duplicate day) it is retried row by row,
+ * and rows that still fail, like entries that cannot be parsed, are moved to a dead-letter list so
+ * one bad entry cannot stall the journal.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class AttendanceWriteBehindService {
+    static String JOURNAL_KEY = "attendance:journal";
+    static String DEAD_LETTER_KEY = "attendance:journal:dead";
+    static String FLUSH_LOCK_KEY = "lock:attendance:flush";
+
+    static String ENQUEUE_SCRIPT = "local size = redis.call('llen', KEYS[1]) "
+            + "if size >= tonumber(ARGV[2]) then return -1 end "
+            + "return redis.call('rpush', KEYS[1], ARGV[1])";
+
+    // trims the flushed batch only if it is still the head of the journal, and dead-letters with it
+    static String TRIM_SCRIPT = "local n = tonumber(ARGV[1]) "
+            + "local head = redis.call('lrange', KEYS[1], 0, n - 1) "
+            + "if #head ~= n then return 0 end "
+            + "for i = 1, n do if head[i] ~= ARGV[i + 1] then return 0 end end "
+            + "redis.call('ltrim', KEYS[1], n, -1) "
+            + "for i = n + 2, #ARGV do redis.call('rpush', KEYS[2], ARGV[i]) end "
+            + "return 1";
+
+    RedissonClient redissonClient;
+    ObjectMapper objectMapper;
+    JdbcTemplate jdbcTemplate;
+    TransactionTemplate transactionTemplate;
+    CacheService cacheService;
+    LockMetrics lockMetrics;
+    CacheRegion<String, UserResponse> userInfoRegion;
+    CacheRegion<String, RewardHistoryPageResponse> rewardHistoryRegion;
+    CacheRegion<AttendanceMonthSegment.Key, AttendanceMonthSegment> attendanceRegion;
+
+    @NonFinal
+    @Value("${attendance.write-behind.enabled}")
+    protected boolean ENABLED;
+
+    @NonFinal
+    @Value("${attendance.write-behind.batch-size}")
+    protected int BATCH_SIZE;
+
+    @NonFinal
+    @Value("${attendance.write-behind.flush-interval}")
+    protected long FLUSH_INTERVAL;
+
+    @NonFinal
+    @Value("${attendance.write-behind.max-pending}")
+    protected long MAX_PENDING;
+
+    @NonFinal
+    ScheduledExecutorService flusher;
+
+    public boolean isEnabled() {
+        return ENABLED;
+    }
+
+    public void enqueue(User user, AttendanceRecords record) {
+        PendingCheckIn pending = PendingCheckIn.builder()
+                .userId(user.getId())
+                .username(user.getUsername())
+                .attendanceDate(record.getAttendanceDate())
+                .checkedInAt(record.getCheckedInAt())
+                .rewardAmount(record.getRewardAmount())
+                .build();
+
+        Long size;
+        try {
+            size = redissonClient
+                    .getScript(StringCodec.INSTANCE)
+                    .eval(
+                            RScript.Mode.READ_WRITE,
+                            ENQUEUE_SCRIPT,
+                            RScript.ReturnType.INTEGER,
+                            List.<Object>of(JOURNAL_KEY),
+                            objectMapper.writeValueAsString(pending),
+                            String.valueOf(MAX_PENDING));
+        } catch (Exception e) {
+            log.error("Failed to journal check-in for user {}", user.getId(), e);
+            throw new AppException(ErrorCode.UNCATEGORIZED_EXCEPTION);
+        }
+
+        if (size < 0) {
+            log.warn("Check-in journal is full, rejecting check-in for user {}", user.getId());
+            throw new AppException(ErrorCode.SERVICE_BUSY);
+        }
+        if (size % BATCH_SIZE == 0) {
+            flusher.execute(this::flush);
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        if (!ENABLED) {
+            return;
+        }
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "attendance-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, FLUSH_INTERVAL, FLUSH_INTERVAL, TimeUnit.MILLISECONDS);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void replay() {
+        if (ENABLED) {
+            flusher.execute(this::flush);
+        }
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (!ENABLED) {
+            return;
+        }
+        flusher.shutdown();
+        flusher.awaitTermination(10, TimeUnit.SECONDS);
+        flush();
+    }
+
+    void flush() {
+        RLock lock = redissonClient.getLock(FLUSH_LOCK_KEY);
+        boolean locked = false;
+
+        try {
+            // no fixed lease: the watchdog keeps the lock for as long as the batches keep coming
+            locked = lockMetrics.tryLock(lock, FLUSH_LOCK_KEY, 0, -1, TimeUnit.SECONDS);
+            if (!locked) {
+                return;
+            }
+
+            RList<String> journal = redissonClient.getList(JOURNAL_KEY, StringCodec.INSTANCE);
+            int flushed;
+            do {
+                List<String> batch = journal.range(0, BATCH_SIZE - 1);
+                if (batch.isEmpty()) {
+                    return;
+                }
+
+                List<PendingCheckIn> entries = new ArrayList<>(batch.size());
+                List<String> sources = new ArrayList<>(batch.size());
+                List<String> deadLetters = new ArrayList<>();
+                for (String json : batch) {
+                    try {
+                        entries.add(objectMapper.readValue(json, PendingCheckIn.class));
+                        sources.add(json);
+                    } catch (JsonProcessingException e) {
+                        log.error("Moving unreadable journal entry to {}: {}", DEAD_LETTER_KEY, json, e);
+                        deadLetters.add(json);
+                    }
+                }
+
+                List<PendingCheckIn> written = writeBatch(entries, sources, deadLetters);
+                boolean trimmed = trim(batch, deadLetters);
+                afterFlush(written);
+                if (!trimmed) {
+                    log.warn("Check-in journal head changed during the flush, leaving it for the next flush");
+                    return;
+                }
+
+                flushed = batch.size();
+                log.info("Flushed {} journaled check-ins, {} new", flushed, written.size());
+            } while (flushed == BATCH_SIZE);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Failed to flush check-in journal", e);
+        } finally {
+            if (locked) {
+                lockMetrics.unlock(lock, FLUSH_LOCK_KEY);
+            }
+        }
+    }
+
+    private boolean trim(List<String> batch, List<String> deadLetters) {
+        List<Object> args = new ArrayList<>(1 + batch.size() + deadLetters.size());
+        args.add(String.valueOf(batch.size()));
+        args.addAll(batch);
+        args.addAll(deadLetters);
+        Long trimmed = redissonClient
+                .getScript(StringCodec.INSTANCE)
+                .eval(
+                        RScript.Mode.READ_WRITE,
+                        TRIM_SCRIPT,
+                        RScript.ReturnType.INTEGER,
+                        List.<Object>of(JOURNAL_KEY, DEAD_LETTER_KEY),
+                        args.toArray());
+        return trimmed != null && trimmed == 1;
+    }
+
+    /**
+     * Writes {@code entries} in one transaction, or row by row when that violates a constraint. Rows
+     * that fail on their own are added to {@code deadLetters}; any other failure aborts the flush so
+     * the batch stays in the journal.
+     */
+    private List<PendingCheckIn> writeBatch(
+            List<PendingCheckIn> entries, List<String> sources, List<String> deadLetters) {
+        if (entries.isEmpty()) {
+            return Collections.emptyList();
+        }
+        try {
+            return transactionTemplate.execute(status -> write(entries));
+        } catch (DataIntegrityViolationException e) {
+            log.warn("Batch of {} journaled check-ins was rejected, writing them one by one", entries.size(), e);
+        }
+
+        List<PendingCheckIn> written = new ArrayList<>();
+        for (int i = 0; i < entries.size(); i++) {
+            PendingCheckIn entry = entries.get(i);
+            try {
+                written.addAll(transactionTemplate.execute(status -> write(List.of(entry))));
+            } catch (DataIntegrityViolationException e) {
+                log.error("Moving journaled check-in {} to {}", entry.key(), DEAD_LETTER_KEY, e);
+                deadLetters.add(sources.get(i));
+            }
+        }
+        return written;
+    }
+
+    private List<PendingCheckIn> write(List<PendingCheckIn> entries) {
+        // replayed entries that already reached the table must not be inserted or credited twice
+        Set<String> existing = findExisting(entries);
+        Set<String> seen = new HashSet<>();
+        List<PendingCheckIn> pending = entries.stream()
+                .filter(entry -> !existing.contains(entry.key()) && seen.add(entry.key()))
+                .toList();
+        if (pending.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        String values = String.join(",", Collections.nCopies(pending.size(), "(?, ?, ?, ?)"));
+        List<Object> args = new ArrayList<>(pending.size() * 4);
+        pending.forEach(entry -> {
+            args.add(entry.getUserId());
+            args.add(entry.getAttendanceDate());
+            args.add(entry.getCheckedInAt());
+            args.add(entry.getRewardAmount());
+        });
+        jdbcTemplate.update(
+                "INSERT INTO attendance_records (user_id, attendance_date, checked_in_at, reward_amount) VALUES "
+                        + values,
+                args.toArray());
+
+        Map<String, Integer> credits = pending.stream()
+                .collect(Collectors.groupingBy(
+                        PendingCheckIn::getUserId, Collectors.summingInt(PendingCheckIn::getRewardAmount)));
+        jdbcTemplate.batchUpdate(
+                "UPDATE user SET lotus = lotus + ? WHERE id = ?",
+                credits.entrySet().stream()
+                        .map(credit -> new Object[] {credit.getValue(), credit.getKey()})
+                        .toList());
+
+        return pending;
+    }
+
+    private Set<String> findExisting(List<PendingCheckIn> entries) {
+        String tuples = String.join(",", Collections.nCopies(entries.size(), "(?, ?)"));
+        List<Object> args = new ArrayList<>(entries.size() * 2);
+        entries.forEach(entry -> {
+            args.add(entry.getUserId());
+            args.add(entry.getAttendanceDate());
+        });
+        return new HashSet<>(jdbcTemplate.query(
+                "SELECT user_id, attendance_date FROM attendance_records WHERE (user_id, attendance_date) IN (" + tuples
+                        + ")",
+                (rs, rowNum) -> rs.getString(1) + ":" + rs.getObject(2, LocalDate.class),
+                args.toArray()));
+    }
+
+    private void afterFlush(List<PendingCheckIn> written) {
+        for (PendingCheckIn entry : written) {
+            try {
+                attendanceRegion.evict(
+                        new AttendanceMonthSegment.Key(entry.getUserId(), YearMonth.from(entry.getAttendanceDate())));
+                rewardHistoryRegion.evict(entry.getUserId());
+                cacheService.evictUserFromCache(entry.getUsername());
+                userInfoRegion.evict(entry.getUsername());
+            } catch (Exception e) {
+                log.error("Failed to invalidate cache for user {}", entry.getUserId(), e);
+            }
+        }
+    }
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @FieldDefaults(level = AccessLevel.PRIVATE)
+    public static class PendingCheckIn {
+        String userId;
+        String username;
+        LocalDate attendanceDate;
+        LocalDateTime checkedInAt;
+        int rewardAmount;
+
+        String key() {
+            return userId + ":" + attendanceDate;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.example.demo.service;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.entity.AuditEvent;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Audit events go into a pre-allocated ring of slots that request threads claim with one CAS and
+ * fill in place, so publishing never blocks or allocates. A single consumer thread drains the ring
+ * and inserts the events in batches into audit_event. When the ring is full the event is dropped
+ * and counted instead of making the request wait.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class AuditTrailService {
+    static String INSERT_SQL = "INSERT INTO audit_event (type, subject, detail, occurred_at) VALUES (?, ?, ?, ?)";
+
+    JdbcTemplate jdbcTemplate;
+    MeterRegistry meterRegistry;
+
+    AtomicLong claimed = new AtomicLong(-1);
+    AtomicLong consumed = new AtomicLong(-1);
+
+    @NonFinal
+    @Value("${audit.enabled}")
+    protected boolean ENABLED;
+
+    @NonFinal
+    @Value("${audit.buffer-size}")
+    protected int BUFFER_SIZE;
+
+    @NonFinal
+    @Value("${audit.batch-size}")
+    protected int BATCH_SIZE;
+
+    @NonFinal
+    Slot[] slots;
+
+    // sequence number published in each slot, -1 while it is being written
+    @NonFinal
+    AtomicLongArray published;
+
+    @NonFinal
+    int mask;
+
+    @NonFinal
+    Counter dropped;
+
+    @NonFinal
+    volatile boolean running;
+
+    @NonFinal
+    Thread consumer;
+
+    public void publish(AuditEvent.Type type, String subject) {
+        publish(type, subject, null);
+    }
+
+    public void publish(AuditEvent.Type type, String subject, String detail) {
+        if (!ENABLED) {
+            return;
+        }
+
+        long sequence;
+        do {
+            sequence = claimed.get() + 1;
+            if (sequence - consumed.get() > slots.length) {
+                dropped.increment();
+                return;
+            }
+        } while (!claimed.compareAndSet(sequence - 1, sequence));
+
+        int index = (int) sequence & mask;
+        Slot slot = slots[index];
+        slot.type = type;
+        slot.subject = subject;
+        slot.detail = detail;
+        slot.occurredAt = System.currentTimeMillis();
+        published.lazySet(index, sequence);
+    }
+
+    @PostConstruct
+    void start() {
+        if (!ENABLED) {
+            return;
+        }
+
+        int capacity = Integer.highestOneBit(Math.max(BUFFER_SIZE - 1, 1)) << 1;
+        slots = new Slot[capacity];
+        published = new AtomicLongArray(capacity);
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Slot();
+            published.set(i, -1);
+        }
+        mask = capacity - 1;
+
+        dropped = Counter.builder("audit.events.dropped")
+                .description("Audit events dropped because the buffer was full")
+                .register(meterRegistry);
+        Gauge.builder("audit.events.pending", () -> claimed.get() - consumed.get())
+                .description("Audit events waiting to be written")
+                .register(meterRegistry);
+
+        running = true;
+        consumer = new Thread(this::consume, "audit-trail");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        if (!ENABLED) {
+            return;
+        }
+        running = false;
+        consumer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    private void consume() {
+        List<Object[]> batch = new ArrayList<>(BATCH_SIZE);
+        while (true) {
+            drain(batch);
+            if (!batch.isEmpty()) {
+                write(batch);
+                batch.clear();
+            } else if (!running) {
+                return;
+            } else {
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+            }
+        }
+    }
+
+    private void drain(List<Object[]> batch) {
+        long next = consumed.get() + 1;
+        while (batch.size() < BATCH_SIZE) {
+            int index = (int) next & mask;
+            if (published.get(index) != next) {
+                // not claimed yet, or claimed and still being written
+                return;
+            }
+
+            Slot slot = slots[index];
+            batch.add(new Object[] {slot.type.name(), slot.subject, slot.detail, new Timestamp(slot.occurredAt)});
+            slot.subject = null;
+            slot.detail = null;
+
+            // hand the slot back to producers
+            consumed.lazySet(next);
+            next++;
+        }
+    }
+
+    private void write(List<Object[]> batch) {
+        try {
+            jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+        } catch (Exception e) {
+            log.error("Failed to write {} audit events", batch.size(), e);
+            dropped.increment(batch.size());
+        }
+    }
+
+    private static class Slot {
+        AuditEvent.Type type;
+        String subject;
+        String detail;
+        long occurredAt;
+    }
+}
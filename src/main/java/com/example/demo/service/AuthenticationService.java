@@ -3,34 +3,30 @@ package com.example.demo.service;
 import java.text.ParseException;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.Collection;
 import java.util.Date;
-import java.util.StringJoiner;
+import java.util.List;
 import java.util.UUID;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
 import com.example.demo.dto.request.AuthenticationRequest;
 import com.example.demo.dto.request.IntrospectRequest;
 import com.example.demo.dto.request.LogoutRequest;
 import com.example.demo.dto.request.RefreshRequest;
 import com.example.demo.dto.response.AuthenticationResponse;
 import com.example.demo.dto.response.IntrospectResponse;
-import com.example.demo.entity.InvalidatedToken;
+import com.example.demo.entity.AuditEvent;
+import com.example.demo.entity.Role;
 import com.example.demo.entity.User;
 import com.example.demo.exception.AppException;
 import com.example.demo.exception.ErrorCode;
-import com.example.demo.repository.InvalidatedTokenRepository;
 import com.example.demo.repository.UserRepository;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
-import org.springframework.stereotype.Service;
-import org.springframework.util.CollectionUtils;
-import com.nimbusds.jose.*;
-import com.nimbusds.jose.crypto.MACSigner;
-import com.nimbusds.jose.crypto.MACVerifier;
+import com.nimbusds.jose.JOSEException;
 import com.nimbusds.jwt.JWTClaimsSet;
 import com.nimbusds.jwt.SignedJWT;
 
-
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
@@ -42,12 +38,15 @@ import lombok.extern.slf4j.Slf4j;
 @Slf4j
 @FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
 public class AuthenticationService {
-    UserRepository userRepository;
-    InvalidatedTokenRepository invalidatedTokenRepository;
+    static String FAMILY_CLAIM = "fid";
 
-    @NonFinal
-    @Value("${jwt.signerKey}")
-    protected String SIGNER_KEY;
+    UserRepository userRepository;
+    TokenRevocationService tokenRevocationService;
+    JwtKeyRing jwtKeyRing;
+    RbacSnapshotService rbacSnapshotService;
+    PasswordHashingService passwordHashingService;
+    RefreshTokenStore refreshTokenStore;
+    AuditTrailService auditTrailService;
 
     @NonFinal
     @Value("${jwt.valid-duration}")
@@ -71,16 +70,29 @@ public class AuthenticationService {
     }
 
     public AuthenticationResponse authenticate(AuthenticationRequest request) {
-        PasswordEncoder passwordEncoder = new BCryptPasswordEncoder(10);
         User user = userRepository
-                .findByUsername(request.getUsername())
+                .findWithRolesByUsername(request.getUsername())
                 .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED));
 
-        boolean authenticated = passwordEncoder.matches(request.getPassword(), user.getPassword());
+        var match = passwordHashingService.matches(request.getPassword(), user.getPassword());
+
+        if (!match.matched()) {
+            auditTrailService.publish(AuditEvent.Type.LOGIN_FAILED, user.getUsername());
+            throw new AppException(ErrorCode.UNAUTHENTICATED);
+        }
+
+        match.upgradedHash().ifPresent(hash -> userRepository.updatePassword(user.getId(), hash));
 
-        if (!authenticated) throw new AppException(ErrorCode.UNAUTHENTICATED);
+        var roles = user.getRoles() == null
+                ? List.<String>of()
+                : user.getRoles().stream().map(Role::getName).toList();
+        var familyId = UUID.randomUUID().toString();
+        var jti = UUID.randomUUID().toString();
+        var now = Instant.now();
+        refreshTokenStore.start(familyId, user.getUsername(), jti, now, roles);
 
-        var token = generateToken(user);
+        var token = generateToken(user.getUsername(), roles, familyId, jti, now);
+        auditTrailService.publish(AuditEvent.Type.LOGIN, user.getUsername());
 
         return AuthenticationResponse.builder().token(token).authenticated(true).build();
     }
@@ -90,69 +102,101 @@ public class AuthenticationService {
             var signToken = verifyToken(request.getToken(), true);
 
             String jit = signToken.getJWTClaimsSet().getJWTID();
-            Date expiryTime = signToken.getJWTClaimsSet().getExpirationTime();
+            Date expiryTime =
+                    revocationExpiry(signToken.getJWTClaimsSet().getIssueTime().toInstant());
 
-            InvalidatedToken invalidatedToken =
-                    InvalidatedToken.builder().id(jit).expiryTime(expiryTime).build();
+            tokenRevocationService.revoke(jit, expiryTime);
 
-            invalidatedTokenRepository.save(invalidatedToken);
-        } catch (AppException exception){
+            var familyId = signToken.getJWTClaimsSet().getStringClaim(FAMILY_CLAIM);
+            if (familyId != null) refreshTokenStore.end(familyId);
+            auditTrailService.publish(
+                    AuditEvent.Type.LOGOUT, signToken.getJWTClaimsSet().getSubject());
+        } catch (AppException exception) {
             log.info("Token already expired");
         }
     }
 
     public AuthenticationResponse refreshToken(RefreshRequest request) throws ParseException, JOSEException {
-        var signedJWT = verifyToken(request.getToken(), true);
-
-        var jit = signedJWT.getJWTClaimsSet().getJWTID();
-        var expiryTime = signedJWT.getJWTClaimsSet().getExpirationTime();
+        // the refresh family decides whether this token may still be refreshed, so no revocation lookup here
+        var signedJWT = verifySignature(request.getToken(), true);
 
-        InvalidatedToken invalidatedToken =
-                InvalidatedToken.builder().id(jit).expiryTime(expiryTime).build();
+        var familyId = signedJWT.getJWTClaimsSet().getStringClaim(FAMILY_CLAIM);
+        if (familyId == null) throw new AppException(ErrorCode.UNAUTHENTICATED);
 
-        invalidatedTokenRepository.save(invalidatedToken);
-
-        var username = signedJWT.getJWTClaimsSet().getSubject();
+        var jit = signedJWT.getJWTClaimsSet().getJWTID();
+        var nextJti = UUID.randomUUID().toString();
+        var now = Instant.now();
+        var rotation =
+                refreshTokenStore.rotate(familyId, signedJWT.getJWTClaimsSet().getSubject(), jit, nextJti, now);
+
+        if (rotation.status() == RefreshTokenStore.Rotation.Status.REUSED) {
+            log.warn(
+                    "Refresh token reuse detected for {}, ending its session",
+                    signedJWT.getJWTClaimsSet().getSubject());
+            // the newest token of the family may still be a live access token
+            tokenRevocationService.revokeTransient(rotation.latestJti(), revocationExpiry(rotation.latestIssueTime()));
+            auditTrailService.publish(
+                    AuditEvent.Type.REFRESH_REUSED, signedJWT.getJWTClaimsSet().getSubject());
+        }
+        if (rotation.status() != RefreshTokenStore.Rotation.Status.ROTATED)
+            throw new AppException(ErrorCode.UNAUTHENTICATED);
 
-        var user =
-                userRepository.findByUsername(username).orElseThrow(() -> new AppException(ErrorCode.UNAUTHENTICATED));
+        tokenRevocationService.revokeTransient(
+                jit, revocationExpiry(signedJWT.getJWTClaimsSet().getIssueTime().toInstant()));
 
-        var token = generateToken(user);
+        var token = generateToken(signedJWT.getJWTClaimsSet().getSubject(), rotation.roles(), familyId, nextJti, now);
+        auditTrailService.publish(
+                AuditEvent.Type.REFRESH, signedJWT.getJWTClaimsSet().getSubject());
 
         return AuthenticationResponse.builder().token(token).authenticated(true).build();
     }
 
-    private String generateToken(User user) {
-        JWSHeader header = new JWSHeader(JWSAlgorithm.HS512);
-
-        Instant now = Instant.now();
+    private String generateToken(String username, Collection<String> roles, String familyId, String jti, Instant now) {
         Date expirationTime = Date.from(now.plus(Duration.ofSeconds(VALID_DURATION)));
 
         JWTClaimsSet jwtClaimsSet = new JWTClaimsSet.Builder()
-                .subject(user.getUsername())
+                .subject(username)
                 .issuer("dssolution.vn")
                 .issueTime(Date.from(now))
                 .expirationTime(expirationTime)
-                .jwtID(UUID.randomUUID().toString())
-                .claim("scope", buildScope(user))
+                .jwtID(jti)
+                .claim("scope", rbacSnapshotService.buildScope(roles))
+                .claim(FAMILY_CLAIM, familyId)
                 .build();
 
-        Payload payload = new Payload(jwtClaimsSet.toJSONObject());
-
-        JWSObject jwsObject = new JWSObject(header, payload);
-
         try {
-            jwsObject.sign(new MACSigner(SIGNER_KEY.getBytes()));
-            return jwsObject.serialize();
+            return jwtKeyRing.sign(jwtClaimsSet);
         } catch (JOSEException e) {
             log.error("Cannot create token", e);
             throw new RuntimeException(e);
         }
     }
 
+    public SignedJWT verifyToken(String token) throws JOSEException, ParseException {
+        return verifyToken(token, false);
+    }
+
+    public boolean isRevoked(String jti, Instant issueTime) {
+        return tokenRevocationService.isRevoked(jti, revocationExpiry(issueTime));
+    }
+
+    // a token can still be used to refresh until iat + refreshable-duration, so revocations must last that long
+    private Date revocationExpiry(Instant issueTime) {
+        return Date.from(issueTime.plus(Duration.ofSeconds(REFRESHABLE_DURATION)));
+    }
+
     private SignedJWT verifyToken(String token, boolean isRefresh) throws JOSEException, ParseException {
-        JWSVerifier verifier = new MACVerifier(SIGNER_KEY.getBytes());
+        SignedJWT signedJWT = verifySignature(token, isRefresh);
+
+        if (isRevoked(
+                signedJWT.getJWTClaimsSet().getJWTID(),
+                signedJWT.getJWTClaimsSet().getIssueTime().toInstant()))
+            throw new AppException(ErrorCode.UNAUTHENTICATED);
 
+        return signedJWT;
+    }
+
+    private SignedJWT verifySignature(String token, boolean isRefresh) throws JOSEException, ParseException {
         SignedJWT signedJWT = SignedJWT.parse(token);
 
         Date expiryTime;
@@ -164,26 +208,10 @@ public class AuthenticationService {
             expiryTime = signedJWT.getJWTClaimsSet().getExpirationTime();
         }
 
-        var verified = signedJWT.verify(verifier);
+        var verified = jwtKeyRing.verify(signedJWT);
 
         if (!(verified && expiryTime.after(new Date()))) throw new AppException(ErrorCode.UNAUTHENTICATED);
 
-        if (invalidatedTokenRepository.existsById(signedJWT.getJWTClaimsSet().getJWTID()))
-            throw new AppException(ErrorCode.UNAUTHENTICATED);
-
         return signedJWT;
     }
-
-    private String buildScope(User user) {
-        StringJoiner stringJoiner = new StringJoiner(" ");
-
-        if (!CollectionUtils.isEmpty(user.getRoles()))
-            user.getRoles().forEach(role -> {
-                stringJoiner.add("ROLE_" + role.getName());
-                if (!CollectionUtils.isEmpty(role.getPermissions()))
-                    role.getPermissions().forEach(permission -> stringJoiner.add(permission.getName()));
-            });
-
-        return stringJoiner.toString();
-    }
 }
@@ -0,0 +1,284 @@
+package com.example.demo.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.redisson.api.RBatch;
+import org.redisson.api.RBitSet;
+import org.redisson.api.RLock;
+import org.redisson.api.RMap;
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.RedisException;
+import org.redisson.client.codec.LongCodec;
+import org.redisson.client.codec.StringCodec;
+import org.redisson.codec.CompositeCodec;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.cache.LockMetrics;
+import com.example.demo.repository.AttendanceRecordsRepository;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Per-day check-in bitmaps in Redis, one bit per user ordinal. Bit 0 of every bitmap is set once
+ * the day has been loaded from attendance_records, so a missing or evicted bitmap is rebuilt from
+ * the database instead of being read as "nobody checked in".
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class CheckInStore {
+    static String BITMAP_PREFIX = "checkin:bitmap:";
+    static String COUNT_PREFIX = "checkin:count:";
+    static String CLAIM_PREFIX = "checkin:claim:";
+    static String ORDINALS = "checkin:ordinals";
+    static String ORDINAL_SEQUENCE = "checkin:ordinal:sequence";
+    static long LOADED_BIT = 0;
+    static Duration RETENTION = Duration.ofDays(2);
+    static Duration CLAIM_TTL = Duration.ofSeconds(30);
+
+    static String COUNT_SCRIPT =
+            "return {redis.call('getbit', KEYS[1], 0), tonumber(redis.call('get', KEYS[2]) or '0')}";
+    static String MARK_SCRIPT = "local previous = redis.call('setbit', KEYS[1], ARGV[1], 1) "
+            + "if previous == 0 then redis.call('incr', KEYS[2]) end "
+            + "redis.call('expire', KEYS[1], ARGV[2]) "
+            + "redis.call('expire', KEYS[2], ARGV[2]) "
+            + "return previous";
+    static String CLAIM_SCRIPT = "if redis.call('getbit', KEYS[1], 0) == 0 then return -1 end "
+            + "if redis.call('getbit', KEYS[1], ARGV[1]) == 1 then return 0 end "
+            + "if redis.call('set', KEYS[2], ARGV[2], 'NX', 'EX', ARGV[3]) then return 1 end "
+            + "return 2";
+    // ORs the loaded bits into the live bitmap and recounts it, atomically with MARK_SCRIPT
+    static String MERGE_SCRIPT = "redis.call('bitop', 'OR', KEYS[1], KEYS[1], KEYS[2]) "
+            + "redis.call('del', KEYS[2]) "
+            + "redis.call('set', KEYS[3], redis.call('bitcount', KEYS[1]) - 1, 'EX', ARGV[1]) "
+            + "redis.call('expire', KEYS[1], ARGV[1]) "
+            + "return 1";
+    static String RELEASE_SCRIPT =
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) end " + "return 0";
+
+    RedissonClient redissonClient;
+    AttendanceRecordsRepository attendanceRecordsRepository;
+    LockMetrics lockMetrics;
+
+    Map<String, Long> ordinals = new ConcurrentHashMap<>();
+    Map<LocalDate, BitSet> localBitmaps = new ConcurrentHashMap<>();
+
+    /**
+     * Claims the (user, day) slot in one round trip. A claim that is never released or marked
+     * expires after {@link #CLAIM_TTL}. When Redis is unavailable the answer comes from this node's
+     * marks and the database, and the unique index on attendance_records stops a concurrent
+     * duplicate.
+     */
+    public Claim tryClaim(String userId, LocalDate date, String token) {
+        try {
+            long ordinal = getOrdinal(userId);
+            Long result = claim(userId, date, ordinal, token);
+            if (result < 0) {
+                rebuild(date);
+                result = claim(userId, date, ordinal, token);
+            }
+            if (result == 0) {
+                markLocal(date, ordinal);
+                return Claim.ALREADY_CHECKED;
+            }
+            return result == 1 ? Claim.CLAIMED : Claim.IN_PROGRESS;
+        } catch (RedisException e) {
+            log.error("Check-in bitmap unavailable, falling back to database", e);
+            Long ordinal = ordinals.get(userId);
+            if (ordinal != null && isLocallyChecked(date, ordinal)) {
+                return Claim.ALREADY_CHECKED;
+            }
+            return attendanceRecordsRepository.existsByUserIdAndAttendanceDate(userId, date)
+                    ? Claim.ALREADY_CHECKED
+                    : Claim.CLAIMED;
+        }
+    }
+
+    public void releaseClaim(String userId, LocalDate date, String token) {
+        try {
+            redissonClient
+                    .getScript(StringCodec.INSTANCE)
+                    .eval(
+                            RScript.Mode.READ_WRITE,
+                            RELEASE_SCRIPT,
+                            RScript.ReturnType.INTEGER,
+                            List.<Object>of(CLAIM_PREFIX + userId + ":" + date),
+                            token);
+        } catch (RedisException e) {
+            log.error("Failed to release check-in claim for user {} on {}", userId, date, e);
+        }
+    }
+
+    public void markCheckedIn(String userId, LocalDate date) {
+        RBatch batch = redissonClient.createBatch();
+        markCheckedIn(batch, userId, date);
+        batch.execute();
+    }
+
+    /** Queues the bitmap update on {@code batch}; it reaches Redis when the batch is executed. */
+    public void markCheckedIn(RBatch batch, String userId, LocalDate date) {
+        long ordinal = getOrdinal(userId);
+        markLocal(date, ordinal);
+        batch.getScript(StringCodec.INSTANCE)
+                .evalAsync(
+                        RScript.Mode.READ_WRITE,
+                        MARK_SCRIPT,
+                        RScript.ReturnType.INTEGER,
+                        List.<Object>of(BITMAP_PREFIX + date, COUNT_PREFIX + date),
+                        String.valueOf(ordinal),
+                        String.valueOf(RETENTION.toSeconds()));
+    }
+
+    public long countCheckedIn(LocalDate date) {
+        List<Long> result = eval(COUNT_SCRIPT, date, 0);
+        if (result.get(0) == 0) {
+            rebuild(date);
+            result = eval(COUNT_SCRIPT, date, 0);
+        }
+        return result.get(1);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    void loadToday() {
+        try {
+            LocalDate today = LocalDate.now();
+            if (eval(COUNT_SCRIPT, today, 0).get(0) == 0) {
+                rebuild(today);
+            }
+        } catch (Exception e) {
+            log.error("Failed to load today's check-in bitmap", e);
+        }
+    }
+
+    private void rebuild(LocalDate date) {
+        RLock lock = redissonClient.getLock("lock:checkin:" + date);
+        boolean locked = false;
+
+        try {
+            locked = lockMetrics.tryLock(lock, "lock:checkin", 5, 30, TimeUnit.SECONDS);
+            if (!locked) {
+                throw new RedisException("Timed out waiting for check-in bitmap rebuild of " + date);
+            }
+
+            RBitSet bitmap = redissonClient.getBitSet(BITMAP_PREFIX + date);
+            if (bitmap.get(LOADED_BIT)) {
+                return;
+            }
+
+            List<String> userIds = attendanceRecordsRepository.findUserIdsByAttendanceDate(date);
+            BitSet bits = new BitSet();
+            bits.set((int) LOADED_BIT);
+            getOrdinals(userIds).values().forEach(ordinal -> bits.set(ordinal.intValue()));
+
+            // OR into the live bitmap so check-ins marked while we were loading are kept
+            RBitSet loaded = redissonClient.getBitSet(BITMAP_PREFIX + date + ":loading");
+            loaded.set(bits);
+            redissonClient
+                    .getScript(StringCodec.INSTANCE)
+                    .eval(
+                            RScript.Mode.READ_WRITE,
+                            MERGE_SCRIPT,
+                            RScript.ReturnType.INTEGER,
+                            List.<Object>of(bitmap.getName(), loaded.getName(), COUNT_PREFIX + date),
+                            String.valueOf(RETENTION.toSeconds()));
+            log.info("Rebuilt check-in bitmap for {} with {} users", date, userIds.size());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RedisException("Interrupted while rebuilding check-in bitmap", e);
+        } finally {
+            if (locked) {
+                lockMetrics.unlock(lock, "lock:checkin");
+            }
+        }
+    }
+
+    private long getOrdinal(String userId) {
+        Long ordinal = ordinals.get(userId);
+        if (ordinal != null) {
+            return ordinal;
+        }
+        return getOrdinals(List.of(userId)).get(userId);
+    }
+
+    private Map<String, Long> getOrdinals(List<String> userIds) {
+        RMap<String, Long> remote =
+                redissonClient.getMap(ORDINALS, new CompositeCodec(StringCodec.INSTANCE, LongCodec.INSTANCE));
+        Map<String, Long> result = new HashMap<>(remote.getAll(new HashSet<>(userIds)));
+
+        Set<String> missing = new HashSet<>(userIds);
+        missing.removeAll(result.keySet());
+        for (String userId : missing) {
+            long next = redissonClient.getAtomicLong(ORDINAL_SEQUENCE).incrementAndGet();
+            Long previous = remote.putIfAbsent(userId, next);
+            result.put(userId, previous != null ? previous : next);
+        }
+
+        ordinals.putAll(result);
+        return result;
+    }
+
+    private Long claim(String userId, LocalDate date, long ordinal, String token) {
+        return redissonClient
+                .getScript(StringCodec.INSTANCE)
+                .eval(
+                        RScript.Mode.READ_WRITE,
+                        CLAIM_SCRIPT,
+                        RScript.ReturnType.INTEGER,
+                        List.<Object>of(BITMAP_PREFIX + date, CLAIM_PREFIX + userId + ":" + date),
+                        String.valueOf(ordinal),
+                        token,
+                        String.valueOf(CLAIM_TTL.toSeconds()));
+    }
+
+    private List<Long> eval(String script, LocalDate date, long ordinal) {
+        return redissonClient
+                .getScript(StringCodec.INSTANCE)
+                .eval(
+                        RScript.Mode.READ_ONLY,
+                        script,
+                        RScript.ReturnType.MULTI,
+                        List.<Object>of(BITMAP_PREFIX + date, COUNT_PREFIX + date),
+                        String.valueOf(ordinal));
+    }
+
+    private void markLocal(LocalDate date, long ordinal) {
+        BitSet bits = localBitmaps.computeIfAbsent(date, key -> new BitSet());
+        synchronized (bits) {
+            bits.set((int) ordinal);
+        }
+        localBitmaps.keySet().removeIf(key -> key.isBefore(date.minus(RETENTION)));
+    }
+
+    private boolean isLocallyChecked(LocalDate date, long ordinal) {
+        BitSet bits = localBitmaps.get(date);
+        if (bits == null) {
+            return false;
+        }
+        synchronized (bits) {
+            return bits.get((int) ordinal);
+        }
+    }
+
+    public enum Claim {
+        CLAIMED,
+        ALREADY_CHECKED,
+        // another request holds the claim and is checking the user in right now
+        IN_PROGRESS
+    }
+}
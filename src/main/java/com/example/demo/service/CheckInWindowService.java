@@ -0,0 +1,90 @@
+package com.example.demo.service;
+
+import java.time.LocalTime;
+import java.util.List;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.example.demo.repository.TimeFrameRepository;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Holds the compiled {@link CheckInWindows}. Any node that changes a TimeFrame row publishes a reload
+ * message after commit, and every node swaps in a freshly compiled instance.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class CheckInWindowService {
+    static String RELOAD_TOPIC = "checkInWindows:reload";
+
+    TimeFrameRepository timeFrameRepository;
+    RedissonClient redissonClient;
+
+    @NonFinal
+    volatile CheckInWindows windows = CheckInWindows.compile(List.of());
+
+    @NonFinal
+    RTopic topic;
+
+    @NonFinal
+    int listenerId;
+
+    public boolean isOpen(LocalTime time) {
+        return windows.isOpen(time);
+    }
+
+    public long secondsUntilNextOpen(LocalTime time) {
+        return windows.secondsUntilNextOpen(time);
+    }
+
+    public void reload() {
+        windows = CheckInWindows.compile(timeFrameRepository.findAll());
+        log.info("Reloaded check-in windows");
+    }
+
+    public void publishReload() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    topic.publish(RELOAD_TOPIC);
+                }
+            });
+        } else {
+            topic.publish(RELOAD_TOPIC);
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        topic = redissonClient.getTopic(RELOAD_TOPIC, StringCodec.INSTANCE);
+        listenerId = topic.addListener(String.class, (channel, message) -> {
+            try {
+                reload();
+            } catch (Exception e) {
+                log.error("Failed to reload check-in windows", e);
+            }
+        });
+        reload();
+    }
+
+    @PreDestroy
+    void stop() {
+        topic.removeListener(listenerId);
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.demo.service;
+
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.Collection;
+
+import com.example.demo.entity.TimeFrame;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+
+/**
+ * Immutable second-of-day view of the check-in time frames. {@link #isOpen} is a single bit lookup
+ * and {@link #secondsUntilNextOpen} a binary search over the window starts; neither allocates.
+ */
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class CheckInWindows {
+    static int SECONDS_PER_DAY = 24 * 60 * 60;
+
+    long[] openSeconds;
+    int[] starts;
+
+    private CheckInWindows(long[] openSeconds, int[] starts) {
+        this.openSeconds = openSeconds;
+        this.starts = starts;
+    }
+
+    public static CheckInWindows compile(Collection<TimeFrame> timeFrames) {
+        long[] openSeconds = new long[(SECONDS_PER_DAY + 63) / 64];
+        int[] starts = new int[timeFrames.size()];
+
+        int index = 0;
+        for (TimeFrame timeFrame : timeFrames) {
+            int start = timeFrame.getStart().toSecondOfDay();
+            int end = timeFrame.getEnd().toSecondOfDay();
+            if (start <= end) {
+                setRange(openSeconds, start, end);
+            } else {
+                // frame crosses midnight
+                setRange(openSeconds, start, SECONDS_PER_DAY - 1);
+                setRange(openSeconds, 0, end);
+            }
+            starts[index++] = start;
+        }
+        Arrays.sort(starts);
+
+        return new CheckInWindows(openSeconds, starts);
+    }
+
+    public boolean isOpen(LocalTime time) {
+        return isOpen(time.toSecondOfDay());
+    }
+
+    /**
+     * Seconds from {@code time} until the next window opens, wrapping to tomorrow's first window,
+     * or -1 if there are no windows at all.
+     */
+    public long secondsUntilNextOpen(LocalTime time) {
+        if (starts.length == 0) {
+            return -1;
+        }
+        int now = time.toSecondOfDay();
+        int index = Arrays.binarySearch(starts, now + 1);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return index < starts.length ? starts[index] - now : SECONDS_PER_DAY - now + starts[0];
+    }
+
+    private boolean isOpen(int secondOfDay) {
+        return (openSeconds[secondOfDay >>> 6] & (1L << secondOfDay)) != 0;
+    }
+
+    private static void setRange(long[] bits, int from, int to) {
+        for (int second = from; second <= to; second++) {
+            bits[second >>> 6] |= 1L << second;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.demo.service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jakarta.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSObject;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.Payload;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jose.crypto.MACVerifier;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+
+import lombok.AccessLevel;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Prepared HS512 signer and verifiers, one per key id. Tokens are signed with the active key and
+ * carry its id in the {@code kid} header; tokens signed with a previous key keep verifying until
+ * that key is removed from {@code jwt.previous-keys}. Nimbus signers and verifiers are thread-safe,
+ * so the instances are built once and shared.
+ */
+@Component
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE)
+public class JwtKeyRing {
+    static final JWSAlgorithm ALGORITHM = JWSAlgorithm.HS512;
+
+    @Value("${jwt.signerKey}")
+    String signerKey;
+
+    @Value("${jwt.key-id}")
+    String keyId;
+
+    // entries of the form "<kid>=<secret>"
+    @Value("${jwt.previous-keys:}")
+    List<String> previousKeys;
+
+    JWSHeader header;
+    JWSSigner signer;
+    Map<String, JWSVerifier> verifiers;
+
+    @PostConstruct
+    void init() throws JOSEException {
+        header = new JWSHeader.Builder(ALGORITHM).keyID(keyId).build();
+        signer = new MACSigner(signerKey.getBytes());
+
+        Map<String, JWSVerifier> prepared = new HashMap<>();
+        prepared.put(keyId, new MACVerifier(signerKey.getBytes()));
+        for (String entry : previousKeys) {
+            int separator = entry.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalStateException("jwt.previous-keys entries must be <kid>=<secret>");
+            }
+            prepared.putIfAbsent(
+                    entry.substring(0, separator),
+                    new MACVerifier(entry.substring(separator + 1).getBytes()));
+        }
+        verifiers = Map.copyOf(prepared);
+        log.info("Loaded JWT keys {}, signing with {}", verifiers.keySet(), keyId);
+    }
+
+    public String sign(JWTClaimsSet claims) throws JOSEException {
+        JWSObject jwsObject = new JWSObject(header, new Payload(claims.toJSONObject()));
+        jwsObject.sign(signer);
+        return jwsObject.serialize();
+    }
+
+    public boolean verify(SignedJWT signedJWT) throws JOSEException {
+        if (!ALGORITHM.equals(signedJWT.getHeader().getAlgorithm())) {
+            return false;
+        }
+        // tokens issued before key ids were introduced have no kid and were signed with the active key
+        String kid = signedJWT.getHeader().getKeyID();
+        JWSVerifier verifier = verifiers.get(kid != null ? kid : keyId);
+        return verifier != null && signedJWT.verify(verifier);
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.demo.service;
+
+import jakarta.transaction.Transactional;
+
+import org.springframework.stereotype.Service;
+
+import com.example.demo.exception.AppException;
+import com.example.demo.exception.ErrorCode;
+import com.example.demo.repository.UserRepository;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.extern.slf4j.Slf4j;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class LotusService {
+    UserRepository userRepository;
+
+    /**
+     * Adds {@code amount} to the user's balance in a single UPDATE and returns the new balance. The
+     * row stays locked until the surrounding transaction ends, so the balance read back is our own.
+     */
+    @Transactional
+    public int credit(String userId, int amount) {
+        if (userRepository.addLotus(userId, amount) == 0) {
+            throw new AppException(ErrorCode.USER_NOT_EXISTED);
+        }
+        return userRepository.findLotusById(userId).orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED));
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.demo.service;
+
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.exception.AppException;
+import com.example.demo.exception.ErrorCode;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Runs BCrypt on a fixed pool of one thread per core so a login burst cannot occupy every request
+ * thread. The queue is bounded; once it is full logins fail fast with 503 and a Retry-After header.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class PasswordHashingService {
+    PasswordEncoder passwordEncoder;
+    MeterRegistry meterRegistry;
+
+    @NonFinal
+    @Value("${security.password.hash-queue-capacity}")
+    protected int QUEUE_CAPACITY;
+
+    @NonFinal
+    @Value("${security.password.retry-after}")
+    protected long RETRY_AFTER;
+
+    @NonFinal
+    ThreadPoolExecutor executor;
+
+    @NonFinal
+    Timer waitTimer;
+
+    @NonFinal
+    Timer hashTimer;
+
+    @NonFinal
+    Counter rejected;
+
+    /**
+     * Checks {@code rawPassword} against {@code encodedPassword}. When it matches and the stored hash
+     * was made with a lower cost than configured, the result carries a fresh hash to store.
+     */
+    public MatchResult matches(String rawPassword, String encodedPassword) {
+        long submittedAt = System.nanoTime();
+        Future<MatchResult> result;
+        try {
+            result = executor.submit(() -> {
+                waitTimer.record(System.nanoTime() - submittedAt, TimeUnit.NANOSECONDS);
+                return hashTimer.record(() -> verify(rawPassword, encodedPassword));
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new AppException(ErrorCode.SERVICE_BUSY, RETRY_AFTER);
+        }
+
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            result.cancel(true);
+            throw new AppException(ErrorCode.SERVICE_BUSY, RETRY_AFTER);
+        } catch (ExecutionException e) {
+            log.error("Password verification failed", e.getCause());
+            throw new AppException(ErrorCode.UNCATEGORIZED_EXCEPTION);
+        }
+    }
+
+    private MatchResult verify(String rawPassword, String encodedPassword) {
+        if (!passwordEncoder.matches(rawPassword, encodedPassword)) {
+            return new MatchResult(false, Optional.empty());
+        }
+        if (!passwordEncoder.upgradeEncoding(encodedPassword)) {
+            return new MatchResult(true, Optional.empty());
+        }
+        return new MatchResult(true, Optional.of(passwordEncoder.encode(rawPassword)));
+    }
+
+    @PostConstruct
+    void start() {
+        int threads = Runtime.getRuntime().availableProcessors();
+        AtomicInteger sequence = new AtomicInteger();
+        executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                0,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(QUEUE_CAPACITY),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        meterRegistry.gauge(
+                "auth.password.queue.depth", executor, pool -> pool.getQueue().size());
+        waitTimer = Timer.builder("auth.password.wait")
+                .description("Time a password check waits for a hashing thread")
+                .register(meterRegistry);
+        hashTimer = Timer.builder("auth.password.hash")
+                .description("Time spent hashing a password")
+                .register(meterRegistry);
+        rejected = Counter.builder("auth.password.rejected")
+                .description("Password checks rejected because the hashing queue was full")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() {
+        executor.shutdownNow();
+    }
+
+    public record MatchResult(boolean matched, Optional<String> upgradedHash) {}
+}
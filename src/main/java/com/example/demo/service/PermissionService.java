@@ -1,17 +1,19 @@
 package com.example.demo.service;
 
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+
 import com.example.demo.dto.request.PermissionRequest;
 import com.example.demo.dto.response.PermissionResponse;
 import com.example.demo.entity.Permission;
 import com.example.demo.mapper.PermissionMapper;
 import com.example.demo.repository.PermissionRepository;
+
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.stereotype.Service;
-
-import java.util.List;
 
 @Service
 @RequiredArgsConstructor
@@ -20,10 +22,12 @@ import java.util.List;
 public class PermissionService {
     PermissionRepository permissionRepository;
     PermissionMapper permissionMapper;
+    RbacSnapshotService rbacSnapshotService;
 
     public PermissionResponse create(PermissionRequest request) {
         Permission permission = permissionMapper.toPermission(request);
         permission = permissionRepository.save(permission);
+        rbacSnapshotService.publishChange();
         return permissionMapper.toPermissionResponse(permission);
     }
 
@@ -34,5 +38,6 @@ public class PermissionService {
 
     public void delete(String permission) {
         permissionRepository.deleteById(permission);
+        rbacSnapshotService.publishChange();
     }
 }
@@ -0,0 +1,131 @@
+package com.example.demo.service;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+import org.redisson.api.RAtomicLong;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.CollectionUtils;
+
+import com.example.demo.entity.Role;
+import com.example.demo.repository.RoleRepository;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-memory role name to scope fragment ({@code "ROLE_X perm1 perm2"}) map used when issuing tokens.
+ * Role and permission changes bump a version counter in Redis and broadcast it; every node reloads
+ * on the broadcast and also compares versions periodically in case a message was missed.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class RbacSnapshotService {
+    static String VERSION_KEY = "rbac:version";
+    static String CHANGED_TOPIC = "rbac:changed";
+
+    RoleRepository roleRepository;
+    RedissonClient redissonClient;
+
+    @NonFinal
+    volatile Snapshot snapshot = new Snapshot(-1, Map.of());
+
+    @NonFinal
+    RTopic topic;
+
+    @NonFinal
+    int listenerId;
+
+    public String buildScope(Collection<String> roles) {
+        StringJoiner stringJoiner = new StringJoiner(" ");
+        if (CollectionUtils.isEmpty(roles)) {
+            return stringJoiner.toString();
+        }
+
+        Map<String, String> fragments = snapshot.fragments();
+        for (String role : roles) {
+            String fragment = fragments.get(role);
+            stringJoiner.add(fragment != null ? fragment : "ROLE_" + role);
+        }
+        return stringJoiner.toString();
+    }
+
+    public void publishChange() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    bumpVersion();
+                }
+            });
+        } else {
+            bumpVersion();
+        }
+    }
+
+    @Scheduled(fixedDelay = 30_000)
+    void checkVersion() {
+        try {
+            if (getVersion().get() != snapshot.version()) {
+                reload();
+            }
+        } catch (Exception e) {
+            log.error("Failed to check RBAC snapshot version", e);
+        }
+    }
+
+    @PostConstruct
+    void start() {
+        topic = redissonClient.getTopic(CHANGED_TOPIC, StringCodec.INSTANCE);
+        listenerId = topic.addListener(String.class, (channel, version) -> reload());
+        reload();
+    }
+
+    @PreDestroy
+    void stop() {
+        topic.removeListener(listenerId);
+    }
+
+    private void bumpVersion() {
+        topic.publish(String.valueOf(getVersion().incrementAndGet()));
+    }
+
+    private synchronized void reload() {
+        // read the version first: a change racing with the load bumps it again and triggers another reload
+        long version = getVersion().get();
+
+        Map<String, String> fragments = new HashMap<>();
+        for (Role role : roleRepository.findAllWithPermissions()) {
+            StringJoiner fragment = new StringJoiner(" ");
+            fragment.add("ROLE_" + role.getName());
+            if (!CollectionUtils.isEmpty(role.getPermissions()))
+                role.getPermissions().forEach(permission -> fragment.add(permission.getName()));
+            fragments.put(role.getName(), fragment.toString());
+        }
+
+        snapshot = new Snapshot(version, Map.copyOf(fragments));
+        log.info("Loaded RBAC snapshot version {} with {} roles", version, fragments.size());
+    }
+
+    private RAtomicLong getVersion() {
+        return redissonClient.getAtomicLong(VERSION_KEY);
+    }
+
+    private record Snapshot(long version, Map<String, String> fragments) {}
+}
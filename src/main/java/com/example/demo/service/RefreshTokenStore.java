@@ -0,0 +1,134 @@
+package com.example.demo.service;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import org.redisson.api.RScript;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Refresh state per login ("family"): the jti of the only token that may be refreshed next and the
+ * user's role names. Each refresh swaps the jti in one script, so presenting an already rotated
+ * token is detected as reuse and ends the whole family.
+ *
+ * <p>Every family also records the user's generation at login. {@link #endAll} bumps the
+ * generation when the user is changed or deleted, which makes all older families stale, so their
+ * stored roles are never issued again.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class RefreshTokenStore {
+    static String FAMILY_PREFIX = "refreshFamily:";
+    static String GENERATION_PREFIX = "refreshGeneration:";
+
+    static String START_SCRIPT = "local generation = redis.call('get', KEYS[2]) or '0' "
+            + "redis.call('hset', KEYS[1], 'jti', ARGV[1], 'iat', ARGV[2], 'roles', ARGV[3], 'gen', generation) "
+            + "redis.call('expire', KEYS[1], ARGV[4]) "
+            + "return 1";
+    // the generation key is kept alive as long as any family rotates, so a family that predates the
+    // last bump can never see the generation fall back to its own value
+    static String ROTATE_SCRIPT = "local state = redis.call('hmget', KEYS[1], 'jti', 'iat', 'roles', 'gen') "
+            + "if not state[1] then return {'0'} end "
+            + "if (redis.call('get', KEYS[2]) or '0') ~= (state[4] or '0') then "
+            + "redis.call('del', KEYS[1]) return {'-2'} end "
+            + "if state[1] ~= ARGV[1] then redis.call('del', KEYS[1]) return {'-1', state[1], state[2]} end "
+            + "redis.call('hset', KEYS[1], 'jti', ARGV[2], 'iat', ARGV[3]) "
+            + "redis.call('expire', KEYS[1], ARGV[4]) "
+            + "if redis.call('exists', KEYS[2]) == 1 then redis.call('expire', KEYS[2], ARGV[4]) end "
+            + "return {'1', state[3]}";
+    static String END_ALL_SCRIPT = "local generation = redis.call('incr', KEYS[1]) "
+            + "redis.call('expire', KEYS[1], ARGV[1]) "
+            + "return generation";
+
+    RedissonClient redissonClient;
+
+    @NonFinal
+    @Value("${jwt.refreshable-duration}")
+    protected long REFRESHABLE_DURATION;
+
+    public void start(String familyId, String username, String jti, Instant issueTime, Collection<String> roles) {
+        redissonClient
+                .getScript(StringCodec.INSTANCE)
+                .eval(
+                        RScript.Mode.READ_WRITE,
+                        START_SCRIPT,
+                        RScript.ReturnType.INTEGER,
+                        List.<Object>of(FAMILY_PREFIX + familyId, GENERATION_PREFIX + username),
+                        jti,
+                        String.valueOf(issueTime.getEpochSecond()),
+                        String.join(" ", roles),
+                        String.valueOf(REFRESHABLE_DURATION));
+    }
+
+    public Rotation rotate(String familyId, String username, String currentJti, String nextJti, Instant nextIssueTime) {
+        List<String> result = redissonClient
+                .getScript(StringCodec.INSTANCE)
+                .eval(
+                        RScript.Mode.READ_WRITE,
+                        ROTATE_SCRIPT,
+                        RScript.ReturnType.MULTI,
+                        List.<Object>of(FAMILY_PREFIX + familyId, GENERATION_PREFIX + username),
+                        currentJti,
+                        nextJti,
+                        String.valueOf(nextIssueTime.getEpochSecond()),
+                        String.valueOf(REFRESHABLE_DURATION));
+
+        return switch (result.get(0)) {
+            case "1" -> new Rotation(Rotation.Status.ROTATED, roles(result.get(1)), null, null);
+            case "-1" -> new Rotation(
+                    Rotation.Status.REUSED,
+                    List.of(),
+                    result.get(1),
+                    Instant.ofEpochSecond(Long.parseLong(result.get(2))));
+            case "-2" -> new Rotation(Rotation.Status.STALE, List.of(), null, null);
+            default -> new Rotation(Rotation.Status.UNKNOWN, List.of(), null, null);
+        };
+    }
+
+    public void end(String familyId) {
+        redissonClient.getBucket(FAMILY_PREFIX + familyId).delete();
+    }
+
+    /** Ends every family of {@code username}; used when the user's roles change or the user is deleted. */
+    public void endAll(String username) {
+        redissonClient
+                .getScript(StringCodec.INSTANCE)
+                .eval(
+                        RScript.Mode.READ_WRITE,
+                        END_ALL_SCRIPT,
+                        RScript.ReturnType.INTEGER,
+                        List.<Object>of(GENERATION_PREFIX + username),
+                        String.valueOf(REFRESHABLE_DURATION));
+        log.info("Ended all refresh families of {}", username);
+    }
+
+    private static List<String> roles(String value) {
+        return value.isEmpty() ? List.of() : Arrays.asList(value.split(" "));
+    }
+
+    /**
+     * Outcome of {@link #rotate}. {@code roles} is set when the token was rotated; {@code latestJti}
+     * and {@code latestIssueTime} identify the family's newest token when an old one was reused.
+     */
+    public record Rotation(Status status, List<String> roles, String latestJti, Instant latestIssueTime) {
+        public enum Status {
+            ROTATED,
+            REUSED,
+            STALE,
+            UNKNOWN
+        }
+    }
+}
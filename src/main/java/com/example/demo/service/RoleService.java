@@ -1,18 +1,21 @@
 package com.example.demo.service;
 
+import java.util.HashSet;
+import java.util.List;
+
+import org.springframework.stereotype.Service;
+
 import com.example.demo.dto.request.RoleRequest;
 import com.example.demo.dto.response.RoleResponse;
 import com.example.demo.mapper.RoleMapper;
 import com.example.demo.repository.PermissionRepository;
 import com.example.demo.repository.RoleRepository;
+import com.example.demo.repository.UserRepository;
+
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.stereotype.Service;
-
-import java.util.HashSet;
-import java.util.List;
 
 @Service
 @RequiredArgsConstructor
@@ -22,6 +25,9 @@ public class RoleService {
     RoleRepository roleRepository;
     PermissionRepository permissionRepository;
     RoleMapper roleMapper;
+    RbacSnapshotService rbacSnapshotService;
+    UserRepository userRepository;
+    RefreshTokenStore refreshTokenStore;
 
     public RoleResponse create(RoleRequest request) {
         var role = roleMapper.toRole(request);
@@ -30,6 +36,7 @@ public class RoleService {
         role.setPermissions(new HashSet<>(permissions));
 
         role = roleRepository.save(role);
+        rbacSnapshotService.publishChange();
         return roleMapper.toRoleResponse(role);
     }
 
@@ -38,6 +45,10 @@ public class RoleService {
     }
 
     public void delete(String role) {
+        // families of these users still list the role and would keep granting ROLE_<role> on refresh
+        List<String> usernames = userRepository.findUsernamesByRole(role);
         roleRepository.deleteById(role);
+        usernames.forEach(refreshTokenStore::endAll);
+        rbacSnapshotService.publishChange();
     }
 }
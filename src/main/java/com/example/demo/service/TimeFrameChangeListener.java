@@ -0,0 +1,29 @@
+package com.example.demo.service;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+
+import com.example.demo.entity.TimeFrame;
+
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+
+@Component
+@RequiredArgsConstructor
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class TimeFrameChangeListener {
+    // resolved lazily: the listener is created while the EntityManagerFactory is still being built
+    ObjectProvider<CheckInWindowService> checkInWindowService;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    void onChange(TimeFrame timeFrame) {
+        checkInWindowService.getObject().publishReload();
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.demo.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.transaction.Transactional;
+
+import org.redisson.api.RSet;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.client.codec.StringCodec;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.entity.InvalidatedToken;
+import com.example.demo.repository.InvalidatedTokenRepository;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.experimental.FieldDefaults;
+import lombok.experimental.NonFinal;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Revoked-token lookups fronted by a local Bloom filter. Nearly every token is not revoked, so the
+ * common case is answered in memory; only a filter hit goes to Redis and then the table.
+ *
+ * <p>Revocations are grouped into hourly buckets by the time the token stops being usable. Each
+ * bucket is its own Redis set that expires at the end of its hour, expired rows are purged from
+ * the table every hour, and the filter is rebuilt from what is left so it never fills up.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@FieldDefaults(level = AccessLevel.PRIVATE, makeFinal = true)
+public class TokenRevocationService {
+    static String REVOKED_PREFIX = "revokedTokens:";
+    static String REVOKED_TOPIC = "revokedTokens:added";
+    static Duration BUCKET = Duration.ofHours(1);
+    static String SEPARATOR = "|";
+
+    InvalidatedTokenRepository invalidatedTokenRepository;
+    RedissonClient redissonClient;
+    MeterRegistry meterRegistry;
+
+    String nodeId = UUID.randomUUID().toString();
+    AtomicLong liveCount = new AtomicLong();
+    Queue<String> revokedDuringRebuild = new ConcurrentLinkedQueue<>();
+    Object swapLock = new Object();
+
+    @NonFinal
+    @Value("${jwt.revocation.expected-insertions}")
+    protected long EXPECTED_INSERTIONS;
+
+    @NonFinal
+    @Value("${jwt.revocation.false-positive-rate}")
+    protected double FALSE_POSITIVE_RATE;
+
+    @NonFinal
+    @Value("${jwt.refreshable-duration}")
+    protected long REFRESHABLE_DURATION;
+
+    @NonFinal
+    volatile BloomFilter filter;
+
+    @NonFinal
+    boolean rebuilding;
+
+    @NonFinal
+    RTopic topic;
+
+    @NonFinal
+    int listenerId;
+
+    public boolean isRevoked(String jti, Date expiryTime) {
+        if (!filter.mightContain(jti)) {
+            return false;
+        }
+
+        RSet<String> bucket = getBucket(expiryTime);
+        if (bucket.contains(jti)) {
+            return true;
+        }
+        if (invalidatedTokenRepository.existsById(jti)) {
+            addToBucket(bucket, jti, expiryTime);
+            return true;
+        }
+        return false;
+    }
+
+    public void revoke(String jti, Date expiryTime) {
+        invalidatedTokenRepository.save(
+                InvalidatedToken.builder().id(jti).expiryTime(expiryTime).build());
+
+        revokeTransient(jti, expiryTime);
+    }
+
+    /**
+     * Revokes in Redis only, for tokens rotated out by a refresh. Filter rebuilds read the live
+     * buckets back, but the revocation is lost if Redis loses the bucket.
+     */
+    public void revokeTransient(String jti, Date expiryTime) {
+        addToBucket(getBucket(expiryTime), jti, expiryTime);
+        onRevoked(jti);
+        topic.publish(nodeId + SEPARATOR + jti);
+    }
+
+    @Scheduled(cron = "0 5 * * * *")
+    @Transactional
+    public void purgeExpired() {
+        int deleted = invalidatedTokenRepository.deleteExpired(new Date());
+        log.info("Purged {} expired revoked tokens", deleted);
+        rebuildFilter();
+    }
+
+    @PostConstruct
+    void start() {
+        filter = new BloomFilter(EXPECTED_INSERTIONS, FALSE_POSITIVE_RATE);
+
+        // subscribe before loading so nothing revoked during the load is missed
+        topic = redissonClient.getTopic(REVOKED_TOPIC, StringCodec.INSTANCE);
+        listenerId = topic.addListener(String.class, (channel, message) -> onMessage(message));
+        rebuildFilter();
+
+        Gauge.builder("auth.revoked.tokens.live", liveCount, AtomicLong::get)
+                .description("Revoked tokens that have not expired yet")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void stop() {
+        topic.removeListener(listenerId);
+    }
+
+    private synchronized void rebuildFilter() {
+        synchronized (swapLock) {
+            rebuilding = true;
+        }
+        try {
+            BloomFilter rebuilt = new BloomFilter(EXPECTED_INSERTIONS, FALSE_POSITIVE_RATE);
+            Date now = new Date();
+            Set<String> ids = new HashSet<>(invalidatedTokenRepository.findActiveIds(now));
+            long last = bucketOf(Date.from(now.toInstant().plusSeconds(REFRESHABLE_DURATION)));
+            for (long bucket = bucketOf(now); bucket <= last; bucket++) {
+                ids.addAll(redissonClient
+                        .<String>getSet(REVOKED_PREFIX + bucket, StringCodec.INSTANCE)
+                        .readAll());
+            }
+            ids.forEach(rebuilt::put);
+
+            // revocations that arrived while loading may not be in the snapshot; swapping under the
+            // same lock as onRevoked means each one either lands in the queue or in the new filter
+            synchronized (swapLock) {
+                String jti;
+                while ((jti = revokedDuringRebuild.poll()) != null) {
+                    rebuilt.put(jti);
+                    ids.add(jti);
+                }
+                filter = rebuilt;
+                liveCount.set(ids.size());
+                rebuilding = false;
+            }
+            log.info("Loaded {} revoked tokens into the revocation filter", ids.size());
+        } finally {
+            synchronized (swapLock) {
+                if (rebuilding) {
+                    // the load failed, so the current filter stays and already has every queued id
+                    revokedDuringRebuild.clear();
+                    rebuilding = false;
+                }
+            }
+        }
+    }
+
+    /** This node already applied its own revocations, so only other nodes' messages are counted. */
+    private void onMessage(String message) {
+        int index = message.indexOf(SEPARATOR);
+        if (index < 0) {
+            onRevoked(message);
+        } else if (!nodeId.equals(message.substring(0, index))) {
+            onRevoked(message.substring(index + 1));
+        }
+    }
+
+    private void onRevoked(String jti) {
+        synchronized (swapLock) {
+            filter.put(jti);
+            liveCount.incrementAndGet();
+            if (rebuilding) {
+                revokedDuringRebuild.add(jti);
+            }
+        }
+    }
+
+    private RSet<String> getBucket(Date expiryTime) {
+        return redissonClient.getSet(REVOKED_PREFIX + bucketOf(expiryTime), StringCodec.INSTANCE);
+    }
+
+    private void addToBucket(RSet<String> bucket, String jti, Date expiryTime) {
+        bucket.add(jti);
+        bucket.expire(Instant.ofEpochSecond((bucketOf(expiryTime) + 1) * BUCKET.toSeconds()));
+    }
+
+    private static long bucketOf(Date expiryTime) {
+        return expiryTime.toInstant().getEpochSecond() / BUCKET.toSeconds();
+    }
+}
@@ -1,10 +1,24 @@
 package com.example.demo.service;
 
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.redisson.api.RLock;
+import org.redisson.api.RedissonClient;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.access.prepost.PostAuthorize;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import com.example.demo.cache.CacheRegion;
+import com.example.demo.cache.LockMetrics;
 import com.example.demo.constant.PredefinedRole;
 import com.example.demo.dto.request.UserCreationRequest;
 import com.example.demo.dto.request.UserUpdateRequest;
 import com.example.demo.dto.response.UserResponse;
-import com.example.demo.entity.AttendanceRecords;
 import com.example.demo.entity.Role;
 import com.example.demo.entity.User;
 import com.example.demo.exception.AppException;
@@ -13,24 +27,11 @@ import com.example.demo.mapper.UserMapper;
 import com.example.demo.repository.AttendanceRecordsRepository;
 import com.example.demo.repository.RoleRepository;
 import com.example.demo.repository.UserRepository;
-import com.fasterxml.jackson.databind.ObjectMapper;
+
 import lombok.AccessLevel;
 import lombok.RequiredArgsConstructor;
 import lombok.experimental.FieldDefaults;
 import lombok.extern.slf4j.Slf4j;
-import org.redisson.api.RLock;
-import org.redisson.api.RMapCache;
-import org.redisson.api.RedissonClient;
-import org.springframework.dao.DataIntegrityViolationException;
-import org.springframework.security.access.prepost.PostAuthorize;
-import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.crypto.password.PasswordEncoder;
-import org.springframework.stereotype.Service;
-
-import java.util.HashSet;
-import java.util.List;
-import java.util.concurrent.TimeUnit;
 
 @Service
 @RequiredArgsConstructor
@@ -43,16 +44,18 @@ public class UserService {
     UserMapper userMapper;
     PasswordEncoder passwordEncoder;
     RedissonClient redissonClient;
-    ObjectMapper objectMapper;
+    CacheRegion<String, UserResponse> userInfoRegion;
+    CacheService cacheService;
+    LockMetrics lockMetrics;
+    RefreshTokenStore refreshTokenStore;
 
     public UserResponse createUser(UserCreationRequest request) {
-        String cacheKey = "user:" + request.getUsername();
         String lockKey = "lock:user:" + request.getUsername();
         RLock lock = redissonClient.getLock(lockKey);
         boolean locked = false;
 
         try {
-            locked = lock.tryLock(5, 10, TimeUnit.SECONDS);
+            locked = lockMetrics.tryLock(lock, "lock:user", 5, 10, TimeUnit.SECONDS);
             if (!locked) {
                 throw new AppException(ErrorCode.UNCATEGORIZED_EXCEPTION);
             }
@@ -74,80 +77,39 @@ public class UserService {
                 throw new AppException(ErrorCode.USER_EXISTED);
             }
 
-            RMapCache<String, String> mapCache = redissonClient.getMapCache("userCache");
-            mapCache.remove(cacheKey);
+            cacheService.evictUserFromCache(request.getUsername());
 
             return userMapper.toUserResponse(user);
         } catch (InterruptedException e) {
             throw new RuntimeException(e);
         } finally {
             if (locked) {
-                lock.unlock();
+                lockMetrics.unlock(lock, "lock:user");
             }
         }
     }
 
-
     public UserResponse getMyInfo() {
         var context = SecurityContextHolder.getContext();
         String name = context.getAuthentication().getName();
 
-        String cacheKey = "userInfo:" + name;
-        String lockKey = "lock:userInfo:" + name;
-        RMapCache<String, String> mapCache = redissonClient.getMapCache("userCache");
-
-        try {
-            if (mapCache.containsKey(cacheKey)) {
-                log.info("Fetching from Redis: {}", cacheKey);
-                String jsonData = mapCache.get(cacheKey);
-                return objectMapper.readValue(jsonData, UserResponse.class);
-            }
-
-            RLock lock = redissonClient.getLock(lockKey);
-            boolean locked = false;
-
-            try {
-                locked = lock.tryLock(5, 10, TimeUnit.SECONDS);
-                if (!locked) {
-                    throw new AppException(ErrorCode.UNCATEGORIZED_EXCEPTION);
-                }
-
-                if (mapCache.containsKey(cacheKey)) {
-                    log.info("Fetching from Redis after acquiring lock: {}", cacheKey);
-                    String jsonData = mapCache.get(cacheKey);
-                    return objectMapper.readValue(jsonData, UserResponse.class);
-                }
-
-                User user = userRepository.findByUsername(name)
-                        .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED));
-
-
-                UserResponse response = UserResponse.builder()
-                        .id(user.getId())
-                        .username(user.getUsername())
-                        .dob(user.getDob())
-                        .lotus(user.getLotus())
-                        .avatar(user.getAvatar())
-                        .firstName(user.getFirstName())
-                        .lastName(user.getLastName())
-                        .build();
-
-                String jsonData = objectMapper.writeValueAsString(response);
-                mapCache.put(cacheKey, jsonData, 1, TimeUnit.DAYS);
-
-                return response;
-            } finally {
-                if (locked) {
-                    lock.unlock();
-                }
-            }
-        } catch (Exception e) {
-            log.error("Error processing user info", e);
-            throw new AppException(ErrorCode.UNCATEGORIZED_EXCEPTION);
-        }
+        return userInfoRegion.get(name, username -> {
+            User user = userRepository
+                    .findByUsername(username)
+                    .orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED));
+
+            return UserResponse.builder()
+                    .id(user.getId())
+                    .username(user.getUsername())
+                    .dob(user.getDob())
+                    .lotus(user.getLotus())
+                    .avatar(user.getAvatar())
+                    .firstName(user.getFirstName())
+                    .lastName(user.getLastName())
+                    .build();
+        });
     }
 
-
     @PostAuthorize("returnObject.username == authentication.name")
     public UserResponse updateUser(String userId, UserUpdateRequest request) {
         User user = userRepository.findById(userId).orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED));
@@ -158,12 +120,23 @@ public class UserService {
         var roles = roleRepository.findAllById(request.getRoles());
         user.setRoles(new HashSet<>(roles));
 
-        return userMapper.toUserResponse(userRepository.save(user));
+        user = userRepository.save(user);
+        endSessions(user.getUsername());
+        return userMapper.toUserResponse(user);
     }
 
     @PreAuthorize("hasRole('ADMIN')")
     public void deleteUser(String userId) {
-        userRepository.deleteById(userId);
+        User user = userRepository.findById(userId).orElseThrow(() -> new AppException(ErrorCode.USER_NOT_EXISTED));
+        userRepository.delete(user);
+        endSessions(user.getUsername());
+    }
+
+    /** Refresh families carry the roles from login, so they must not outlive a change to the user. */
+    private void endSessions(String username) {
+        refreshTokenStore.endAll(username);
+        cacheService.evictUserFromCache(username);
+        userInfoRegion.evict(username);
     }
 
     @PreAuthorize("hasRole('ADMIN')")
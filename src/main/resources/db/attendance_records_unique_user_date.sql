@@ -0,0 +1,15 @@
+-- Adds uk_attendance_records_user_date to an existing attendance_records table. ddl-auto: update
+-- cannot add it when duplicate (user_id, attendance_date) rows exist and only logs the failure,
+-- so the duplicates left by the old non-atomic check-in are removed first, keeping the earliest row.
+-- Run by AttendanceRecordsIndexMigration when the index is missing and
+-- attendance.unique-index-migration.enabled is set; safe to run by hand as well.
+
+DELETE newer
+FROM attendance_records newer
+JOIN attendance_records older
+  ON older.user_id = newer.user_id
+ AND older.attendance_date = newer.attendance_date
+ AND older.id < newer.id;
+
+ALTER TABLE attendance_records
+    ADD CONSTRAINT uk_attendance_records_user_date UNIQUE (user_id, attendance_date);
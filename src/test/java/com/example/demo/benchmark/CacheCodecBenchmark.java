@@ -0,0 +1,126 @@
+package com.example.demo.benchmark;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.redisson.codec.Kryo5Codec;
+
+import com.example.demo.cache.VersionedCacheCodec;
+import com.example.demo.dto.response.RewardHistoryPageResponse;
+import com.example.demo.dto.response.RewardHistoryResponse;
+import com.example.demo.dto.response.UserResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import io.netty.buffer.Unpooled;
+
+/**
+ * Encode/decode time of a reward history page stored the old way (JSON string, then encoded again
+ * by a Redisson object codec, Kryo5Codec here) against the Smile format of VersionedCacheCodec.
+ * {@code main} also prints the bytes per entry of each format before running.
+ *
+ * <pre>mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.example.demo.benchmark.CacheCodecBenchmark</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CacheCodecBenchmark {
+    ObjectMapper objectMapper;
+    Kryo5Codec kryoCodec;
+    VersionedCacheCodec smileCodec;
+    RewardHistoryPageResponse page;
+
+    byte[] jsonBytes;
+    byte[] smileBytes;
+
+    @Setup
+    public void setup() throws Exception {
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        kryoCodec = new Kryo5Codec();
+        smileCodec = new VersionedCacheCodec(objectMapper, "smile");
+        page = samplePage();
+
+        jsonBytes = encodeJson();
+        smileBytes = encodeSmile();
+    }
+
+    @Benchmark
+    public byte[] encodeJson() throws Exception {
+        var buffer = kryoCodec.getValueEncoder().encode(objectMapper.writeValueAsString(page));
+        try {
+            byte[] bytes = new byte[buffer.readableBytes()];
+            buffer.readBytes(bytes);
+            return bytes;
+        } finally {
+            buffer.release();
+        }
+    }
+
+    @Benchmark
+    public RewardHistoryPageResponse decodeJson() throws Exception {
+        var buffer = Unpooled.wrappedBuffer(jsonBytes);
+        String json = (String) kryoCodec.getValueDecoder().decode(buffer, null);
+        return objectMapper.readValue(json, RewardHistoryPageResponse.class);
+    }
+
+    @Benchmark
+    public byte[] encodeSmile() {
+        return smileCodec.encode(page);
+    }
+
+    @Benchmark
+    public RewardHistoryPageResponse decodeSmile() {
+        return smileCodec.decode(smileBytes, RewardHistoryPageResponse.class);
+    }
+
+    static RewardHistoryPageResponse samplePage() {
+        LocalDate today = LocalDate.of(2024, 6, 30);
+        List<RewardHistoryResponse> histories = IntStream.range(0, 20)
+                .mapToObj(day -> new RewardHistoryResponse(today.minusDays(day), 100 + day))
+                .toList();
+        return new RewardHistoryPageResponse(histories, today.minusDays(19));
+    }
+
+    public static void main(String[] args) throws Exception {
+        CacheCodecBenchmark sizes = new CacheCodecBenchmark();
+        sizes.setup();
+        UserResponse user = UserResponse.builder()
+                .id("0f8fad5b-d9cb-469f-a165-70867728950e")
+                .username("admin")
+                .firstName("Admin")
+                .lastName("User")
+                .dob(LocalDate.of(1990, 1, 1))
+                .lotus(1200)
+                .build();
+        System.out.printf(
+                "reward history page: json+kryo %d bytes, smile %d bytes%n",
+                sizes.jsonBytes.length, sizes.smileBytes.length);
+        System.out.printf(
+                "user info: json %d bytes, smile %d bytes%n",
+                sizes.objectMapper.writeValueAsString(user).getBytes(StandardCharsets.UTF_8).length,
+                sizes.smileCodec.encode(user).length);
+
+        new Runner(new OptionsBuilder()
+                        .include(CacheCodecBenchmark.class.getSimpleName())
+                        .build())
+                .run();
+    }
+}
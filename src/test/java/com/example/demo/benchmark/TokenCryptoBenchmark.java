@@ -0,0 +1,100 @@
+package com.example.demo.benchmark;
+
+import java.time.Instant;
+import java.util.Date;
+import java.util.UUID;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSObject;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.JWSVerifier;
+import com.nimbusds.jose.Payload;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jose.crypto.MACVerifier;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+
+/**
+ * Sign/verify throughput with per-call key setup (the old AuthenticationService code path) against
+ * prepared, shared signer and verifier instances (JwtKeyRing).
+ *
+ * <pre>mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=com.example.demo.benchmark.TokenCryptoBenchmark</pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class TokenCryptoBenchmark {
+    static final String SIGNER_KEY = "1TjXchw5FloESb63Kc+DFhTARvpWL4jUGCwfGWxuG5SIf/1y/LgJxHnMqaF6A/ij";
+
+    JWTClaimsSet claims;
+    String token;
+
+    JWSHeader header;
+    JWSSigner signer;
+    JWSVerifier verifier;
+
+    @Setup
+    public void setup() throws Exception {
+        claims = new JWTClaimsSet.Builder()
+                .subject("admin")
+                .issuer("dssolution.vn")
+                .issueTime(Date.from(Instant.now()))
+                .expirationTime(Date.from(Instant.now().plusSeconds(3600)))
+                .jwtID(UUID.randomUUID().toString())
+                .claim("scope", "ROLE_ADMIN")
+                .build();
+
+        header = new JWSHeader.Builder(JWSAlgorithm.HS512).keyID("k1").build();
+        signer = new MACSigner(SIGNER_KEY.getBytes());
+        verifier = new MACVerifier(SIGNER_KEY.getBytes());
+        token = signPrepared();
+    }
+
+    @Benchmark
+    public String signPerCall() throws Exception {
+        JWSObject jwsObject = new JWSObject(new JWSHeader(JWSAlgorithm.HS512), new Payload(claims.toJSONObject()));
+        jwsObject.sign(new MACSigner(SIGNER_KEY.getBytes()));
+        return jwsObject.serialize();
+    }
+
+    @Benchmark
+    public String signPrepared() throws Exception {
+        JWSObject jwsObject = new JWSObject(header, new Payload(claims.toJSONObject()));
+        jwsObject.sign(signer);
+        return jwsObject.serialize();
+    }
+
+    @Benchmark
+    public boolean verifyPerCall() throws Exception {
+        return SignedJWT.parse(token).verify(new MACVerifier(SIGNER_KEY.getBytes()));
+    }
+
+    @Benchmark
+    public boolean verifyPrepared() throws Exception {
+        return SignedJWT.parse(token).verify(verifier);
+    }
+
+    public static void main(String[] args) throws Exception {
+        new Runner(new OptionsBuilder()
+                        .include(TokenCryptoBenchmark.class.getSimpleName())
+                        .build())
+                .run();
+    }
+}
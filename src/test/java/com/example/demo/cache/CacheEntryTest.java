@@ -0,0 +1,94 @@
+package com.example.demo.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+class CacheEntryTest {
+    private static final long EXPIRES_AT = 1_000_000L;
+
+    @Test
+    void wrapWritesHeaderBeforePayload() {
+        byte[] bytes = CacheEntry.wrap(new byte[] {7, 8, 9}, 120, EXPIRES_AT);
+
+        assertThat(bytes).hasSize(CacheEntry.HEADER_SIZE + 3);
+        assertThat(bytes[0]).isEqualTo(CacheEntry.FORMAT);
+        assertThat(bytes).endsWith(7, 8, 9);
+    }
+
+    @Test
+    void unwrapRoundTrip() {
+        CacheEntry entry = CacheEntry.unwrap(CacheEntry.wrap(new byte[] {7, 8, 9}, 120, EXPIRES_AT));
+
+        assertThat(entry).isNotNull();
+        assertThat(entry.getPayload()).containsExactly(7, 8, 9);
+        assertThat(entry.getComputeMillis()).isEqualTo(120);
+        assertThat(entry.getExpiresAt()).isEqualTo(EXPIRES_AT);
+    }
+
+    @Test
+    void unwrapRejectsForeignBytes() {
+        assertThat(CacheEntry.unwrap(null)).isNull();
+        assertThat(CacheEntry.unwrap(new byte[] {CacheEntry.FORMAT, 0, 0})).isNull();
+        // a bare codec value, as written before entries carried a header
+        assertThat(CacheEntry.unwrap(new byte[CacheEntry.HEADER_SIZE + 4])).isNull();
+    }
+
+    @Test
+    void expiresAtTheDeadline() {
+        CacheEntry entry = entry(120);
+
+        assertThat(entry.isExpired(EXPIRES_AT - 1)).isFalse();
+        assertThat(entry.isExpired(EXPIRES_AT)).isTrue();
+    }
+
+    @Test
+    void withoutComputeCostOnlyRefreshesOnceExpired() {
+        CacheEntry free = entry(0);
+        CacheEntry costly = entry(120);
+
+        assertThat(free.shouldRefreshEarly(EXPIRES_AT - 1, 1.0)).isFalse();
+        assertThat(costly.shouldRefreshEarly(EXPIRES_AT - 1, 0.0)).isFalse();
+        assertThat(free.shouldRefreshEarly(EXPIRES_AT, 1.0)).isTrue();
+        assertThat(costly.shouldRefreshEarly(EXPIRES_AT, 0.0)).isTrue();
+    }
+
+    @Test
+    void alwaysRefreshesOnceExpired() {
+        CacheEntry entry = entry(120);
+
+        assertThat(refreshRate(entry, EXPIRES_AT, 1.0)).isEqualTo(1.0);
+        assertThat(refreshRate(entry, EXPIRES_AT + 1_000, 1.0)).isEqualTo(1.0);
+    }
+
+    @Test
+    void almostNeverRefreshesFarFromExpiry() {
+        CacheEntry entry = entry(120);
+
+        assertThat(refreshRate(entry, EXPIRES_AT - 120 * 100, 1.0)).isEqualTo(0.0);
+    }
+
+    @Test
+    void refreshesHalfTheTimeAtTheMedianGap() {
+        // -ln(U) is exponential, so P(refresh) = exp(-gap / (computeMillis * beta))
+        long computeMillis = 1_000;
+        double beta = 2.0;
+        long gap = Math.round(computeMillis * beta * Math.log(2));
+
+        assertThat(refreshRate(entry(computeMillis), EXPIRES_AT - gap, beta)).isBetween(0.4, 0.6);
+    }
+
+    private static CacheEntry entry(long computeMillis) {
+        return CacheEntry.unwrap(CacheEntry.wrap(new byte[0], computeMillis, EXPIRES_AT));
+    }
+
+    private static double refreshRate(CacheEntry entry, long now, double beta) {
+        int trials = 10_000;
+        long refreshed = IntStream.range(0, trials)
+                .filter(i -> entry.shouldRefreshEarly(now, beta))
+                .count();
+        return (double) refreshed / trials;
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.demo.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class VersionedCacheCodecTest {
+    private final VersionedCacheCodec json = new VersionedCacheCodec(new ObjectMapper(), "json");
+    private final VersionedCacheCodec smile = new VersionedCacheCodec(new ObjectMapper(), "smile");
+
+    @Test
+    void writesTheConfiguredFormatHeader() {
+        assertThat(json.encode(new Sample("alice", 10))[0]).isEqualTo(VersionedCacheCodec.JSON);
+        assertThat(smile.encode(new Sample("alice", 10))[0]).isEqualTo(VersionedCacheCodec.SMILE);
+    }
+
+    @Test
+    void readsJsonEntriesAfterSwitchingToSmile() {
+        byte[] written = json.encode(new Sample("alice", 10));
+
+        assertThat(smile.decode(written, Sample.class)).isEqualTo(new Sample("alice", 10));
+    }
+
+    @Test
+    void readsSmileEntriesAfterSwitchingBackToJson() {
+        byte[] written = smile.encode(new Sample("bob", 20));
+
+        assertThat(json.decode(written, Sample.class)).isEqualTo(new Sample("bob", 20));
+    }
+
+    @Test
+    void decodesGenericTypes() {
+        byte[] written = smile.encode(List.of(new Sample("alice", 10), new Sample("bob", 20)));
+
+        assertThat(json.decode(written, new TypeReference<List<Sample>>() {}))
+                .containsExactly(new Sample("alice", 10), new Sample("bob", 20));
+    }
+
+    @Test
+    void unreadableBytesDecodeAsMiss() {
+        assertThat(smile.decode(null, Sample.class)).isNull();
+        assertThat(smile.decode(new byte[0], Sample.class)).isNull();
+        // a value written before the header existed starts with '{'
+        assertThat(smile.decode("{\"name\":\"alice\"}".getBytes(), Sample.class))
+                .isNull();
+        assertThat(smile.decode(new byte[] {VersionedCacheCodec.SMILE, 1, 2, 3}, Sample.class))
+                .isNull();
+    }
+
+    record Sample(String name, int points) {}
+}
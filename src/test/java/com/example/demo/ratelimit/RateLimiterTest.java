@@ -0,0 +1,119 @@
+package com.example.demo.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class RateLimiterTest {
+    private static final String PATH = "/attendance/check-in";
+    private static final Clock START = Clock.fixed(Instant.parse("2024-01-01T09:00:00Z"), ZoneOffset.UTC);
+
+    private RateLimiter rateLimiter;
+
+    @AfterEach
+    void stop() {
+        rateLimiter.stop();
+    }
+
+    @Test
+    void allowsBurstUpToCapacity() {
+        rateLimiter = start(limit(3, 60), null);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(rateLimiter.tryAcquire(request("10.0.0.1"), null).allowed())
+                    .isTrue();
+        }
+        RateLimiter.Decision rejected = rateLimiter.tryAcquire(request("10.0.0.1"), null);
+
+        assertThat(rejected.allowed()).isFalse();
+        // one token every 20 seconds
+        assertThat(rejected.retryAfterSeconds()).isEqualTo(20);
+    }
+
+    @Test
+    void refillsOverThePeriod() {
+        rateLimiter = start(limit(2, 1), null);
+
+        assertThat(rateLimiter.tryAcquire(request("10.0.0.1"), null).allowed()).isTrue();
+        assertThat(rateLimiter.tryAcquire(request("10.0.0.1"), null).allowed()).isTrue();
+        assertThat(rateLimiter.tryAcquire(request("10.0.0.1"), null).allowed()).isFalse();
+
+        // two tokens a second, so 600ms brings back one
+        rateLimiter.setClock(Clock.offset(START, Duration.ofMillis(600)));
+
+        assertThat(rateLimiter.tryAcquire(request("10.0.0.1"), null).allowed()).isTrue();
+    }
+
+    @Test
+    void keepsOneBucketPerClient() {
+        rateLimiter = start(limit(1, 60), null);
+
+        assertThat(rateLimiter.tryAcquire(request("10.0.0.1"), null).allowed()).isTrue();
+        assertThat(rateLimiter.tryAcquire(request("10.0.0.1"), null).allowed()).isFalse();
+        assertThat(rateLimiter.tryAcquire(request("10.0.0.2"), null).allowed()).isTrue();
+    }
+
+    @Test
+    void subjectRejectionRefundsTheIpToken() {
+        rateLimiter = start(limit(2, 60), limit(1, 60));
+
+        assertThat(rateLimiter.tryAcquire(request("10.0.0.1"), "alice").allowed())
+                .isTrue();
+        assertThat(rateLimiter.tryAcquire(request("10.0.0.1"), "alice").allowed())
+                .isFalse();
+        // the IP bucket still has the token alice's rejected request took back
+        assertThat(rateLimiter.tryAcquire(request("10.0.0.1"), "bob").allowed()).isTrue();
+    }
+
+    @Test
+    void ignoresOtherRoutes() {
+        rateLimiter = start(limit(1, 60), null);
+        MockHttpServletRequest other = new MockHttpServletRequest("GET", PATH);
+        other.setServletPath(PATH);
+
+        assertThat(rateLimiter.tryAcquire(other, null).allowed()).isTrue();
+        assertThat(rateLimiter.tryAcquire(other, null).allowed()).isTrue();
+    }
+
+    private static RateLimiter start(RateLimitProperties.Limit perIp, RateLimitProperties.Limit perSubject) {
+        RateLimitProperties.Route route = new RateLimitProperties.Route();
+        route.setName("check-in");
+        route.setMethod("POST");
+        route.setPath(PATH);
+        route.setPerIp(perIp);
+        route.setPerSubject(perSubject);
+
+        RateLimitProperties properties = new RateLimitProperties();
+        // keep the Redis sync out of the way, these tests only cover the local buckets
+        properties.setSyncInterval(3_600_000);
+        properties.getRoutes().add(route);
+
+        RateLimiter rateLimiter = new RateLimiter(properties, null, new SimpleMeterRegistry());
+        rateLimiter.setClock(START);
+        rateLimiter.start();
+        return rateLimiter;
+    }
+
+    private static RateLimitProperties.Limit limit(long capacity, long period) {
+        RateLimitProperties.Limit limit = new RateLimitProperties.Limit();
+        limit.setCapacity(capacity);
+        limit.setPeriod(period);
+        return limit;
+    }
+
+    private static MockHttpServletRequest request(String remoteAddr) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", PATH);
+        request.setServletPath(PATH);
+        request.setRemoteAddr(remoteAddr);
+        return request;
+    }
+}
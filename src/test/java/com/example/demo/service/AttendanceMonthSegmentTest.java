@@ -0,0 +1,74 @@
+package com.example.demo.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.dto.response.AttendanceRecordResponse;
+import com.example.demo.entity.AttendanceRecords;
+
+class AttendanceMonthSegmentTest {
+    private final AttendanceMonthSegment segment = AttendanceMonthSegment.of(List.of(
+            record(LocalDate.of(2024, 1, 1), 10),
+            record(LocalDate.of(2024, 1, 15), 25),
+            record(LocalDate.of(2024, 1, 31), 40)));
+
+    @Test
+    void rewardPerCheckedDay() {
+        assertResponse(segment.toResponse(LocalDate.of(2024, 1, 1)), true, 10);
+        assertResponse(segment.toResponse(LocalDate.of(2024, 1, 15)), true, 25);
+        assertResponse(segment.toResponse(LocalDate.of(2024, 1, 31)), true, 40);
+    }
+
+    @Test
+    void uncheckedDayHasNoReward() {
+        assertResponse(segment.toResponse(LocalDate.of(2024, 1, 2)), false, 0);
+        assertResponse(segment.toResponse(LocalDate.of(2024, 1, 30)), false, 0);
+    }
+
+    @Test
+    void encodeDecodeRoundTrip() {
+        byte[] bytes = segment.encode();
+        AttendanceMonthSegment decoded = AttendanceMonthSegment.decode(bytes);
+
+        // format byte, mask and one int per checked day
+        assertThat(bytes).hasSize(1 + 4 + 3 * 4);
+        assertThat(decoded).isNotNull();
+        for (int day = 1; day <= 31; day++) {
+            LocalDate date = LocalDate.of(2024, 1, day);
+            assertThat(decoded.toResponse(date)).isEqualTo(segment.toResponse(date));
+        }
+    }
+
+    @Test
+    void emptyMonthRoundTrip() {
+        AttendanceMonthSegment decoded = AttendanceMonthSegment.decode(
+                AttendanceMonthSegment.of(List.of()).encode());
+
+        assertThat(decoded).isNotNull();
+        assertResponse(decoded.toResponse(LocalDate.of(2024, 2, 10)), false, 0);
+    }
+
+    @Test
+    void unknownBytesDecodeAsMiss() {
+        assertThat(AttendanceMonthSegment.decode(null)).isNull();
+        assertThat(AttendanceMonthSegment.decode(new byte[] {1, 0})).isNull();
+        assertThat(AttendanceMonthSegment.decode(new byte[] {'{', '"', 'a', '"', '}'}))
+                .isNull();
+    }
+
+    private static void assertResponse(AttendanceRecordResponse response, boolean checked, int reward) {
+        assertThat(response.isChecked()).isEqualTo(checked);
+        assertThat(response.getRewardAmount()).isEqualTo(reward);
+    }
+
+    private static AttendanceRecords record(LocalDate date, int reward) {
+        return AttendanceRecords.builder()
+                .attendanceDate(date)
+                .rewardAmount(reward)
+                .build();
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.demo.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.UUID;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+class BloomFilterTest {
+    @Test
+    void neverForgetsAnInsertedValue() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        var inserted = IntStream.range(0, 10_000)
+                .mapToObj(i -> UUID.randomUUID().toString())
+                .toList();
+        inserted.forEach(filter::put);
+
+        assertThat(inserted).allMatch(filter::mightContain);
+    }
+
+    @Test
+    void emptyFilterContainsNothing() {
+        BloomFilter filter = new BloomFilter(1_000, 0.01);
+
+        assertThat(filter.mightContain("jti")).isFalse();
+        assertThat(filter.mightContain("")).isFalse();
+    }
+
+    @Test
+    void falsePositiveRateStaysNearTargetAtExpectedInsertions() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        IntStream.range(0, 10_000).forEach(i -> filter.put("revoked-" + i));
+
+        long falsePositives = IntStream.range(0, 100_000)
+                .filter(i -> filter.mightContain("live-" + i))
+                .count();
+
+        // sized for 1%; allow for variance but catch a filter that is too small or has too few hashes
+        assertThat(falsePositives / 100_000.0).isLessThan(0.02);
+    }
+
+    @Test
+    void tinyFilterStillWorks() {
+        // sizing rounds up to at least one 64-bit word and one hash function
+        BloomFilter filter = new BloomFilter(1, 0.5);
+        filter.put("only");
+
+        assertThat(filter.mightContain("only")).isTrue();
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.demo.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalTime;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.example.demo.entity.TimeFrame;
+
+class CheckInWindowsTest {
+    private final CheckInWindows windows = CheckInWindows.compile(List.of(
+            TimeFrame.builder()
+                    .start(LocalTime.of(9, 0))
+                    .end(LocalTime.of(11, 0))
+                    .build(),
+            TimeFrame.builder()
+                    .start(LocalTime.of(19, 0))
+                    .end(LocalTime.of(21, 0))
+                    .build()));
+
+    @Test
+    void isOpenInsideWindowsInclusive() {
+        assertThat(windows.isOpen(LocalTime.of(9, 0))).isTrue();
+        assertThat(windows.isOpen(LocalTime.of(10, 30))).isTrue();
+        assertThat(windows.isOpen(LocalTime.of(11, 0))).isTrue();
+        assertThat(windows.isOpen(LocalTime.of(20, 59, 59))).isTrue();
+    }
+
+    @Test
+    void isClosedOutsideWindows() {
+        assertThat(windows.isOpen(LocalTime.of(8, 59, 59))).isFalse();
+        assertThat(windows.isOpen(LocalTime.of(11, 0, 1))).isFalse();
+        assertThat(windows.isOpen(LocalTime.MIDNIGHT)).isFalse();
+        assertThat(windows.isOpen(LocalTime.of(23, 59, 59))).isFalse();
+    }
+
+    @Test
+    void secondsUntilNextOpen() {
+        assertThat(windows.secondsUntilNextOpen(LocalTime.of(8, 0))).isEqualTo(3600);
+        assertThat(windows.secondsUntilNextOpen(LocalTime.of(12, 0))).isEqualTo(7 * 3600);
+        assertThat(windows.secondsUntilNextOpen(LocalTime.of(22, 0))).isEqualTo(11 * 3600);
+    }
+
+    @Test
+    void frameCrossingMidnight() {
+        CheckInWindows overnight = CheckInWindows.compile(List.of(TimeFrame.builder()
+                .start(LocalTime.of(23, 0))
+                .end(LocalTime.of(1, 0))
+                .build()));
+
+        assertThat(overnight.isOpen(LocalTime.of(23, 30))).isTrue();
+        assertThat(overnight.isOpen(LocalTime.of(0, 30))).isTrue();
+        assertThat(overnight.isOpen(LocalTime.of(2, 0))).isFalse();
+    }
+
+    @Test
+    void noWindows() {
+        CheckInWindows empty = CheckInWindows.compile(List.of());
+
+        assertThat(empty.isOpen(LocalTime.NOON)).isFalse();
+        assertThat(empty.secondsUntilNextOpen(LocalTime.NOON)).isEqualTo(-1);
+    }
+}
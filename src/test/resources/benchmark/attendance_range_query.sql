@@ -0,0 +1,64 @@
+-- Range query benchmark for attendance_records (MySQL 8).
+--
+-- Run against an empty schema, e.g. the docker-compose MySQL:
+--   mysql -uuser -p123456 user < src/test/resources/benchmark/attendance_range_query.sql
+--
+-- Loads 10M rows (100k users x 100 days), then times the old DATE()-wrapped predicate
+-- against the sargable range predicate, before and after the (user_id, attendance_date)
+-- unique index that AttendanceRecords now declares.
+
+DROP TABLE IF EXISTS bench_attendance_records;
+CREATE TABLE bench_attendance_records (
+    id              INT AUTO_INCREMENT PRIMARY KEY,
+    user_id         VARCHAR(255) NOT NULL,
+    attendance_date DATE NOT NULL,
+    checked_in_at   DATETIME(6),
+    reward_amount   INT
+);
+
+SET SESSION cte_max_recursion_depth = 100000;
+
+INSERT INTO bench_attendance_records (user_id, attendance_date, checked_in_at, reward_amount)
+WITH RECURSIVE
+    users (n) AS (SELECT 1 UNION ALL SELECT n + 1 FROM users WHERE n < 100000),
+    days (d) AS (SELECT 0 UNION ALL SELECT d + 1 FROM days WHERE d < 99)
+SELECT CONCAT('user-', users.n),
+       DATE_SUB(CURDATE(), INTERVAL days.d DAY),
+       TIMESTAMP(DATE_SUB(CURDATE(), INTERVAL days.d DAY), '09:30:00'),
+       days.d % 31 + 1
+FROM users CROSS JOIN days;
+
+ANALYZE TABLE bench_attendance_records;
+
+SET @user_id = 'user-54321';
+SET @start_date = DATE_SUB(CURDATE(), INTERVAL 30 DAY);
+SET @end_date = CURDATE();
+
+-- 1. Old query, no index: full scan
+EXPLAIN ANALYZE
+SELECT * FROM bench_attendance_records
+WHERE user_id = @user_id AND DATE(attendance_date) BETWEEN DATE(@start_date) AND DATE(@end_date);
+
+-- 2. New query, no index: still a full scan
+EXPLAIN ANALYZE
+SELECT * FROM bench_attendance_records
+WHERE user_id = @user_id AND attendance_date >= @start_date AND attendance_date <= @end_date;
+
+ALTER TABLE bench_attendance_records
+    ADD CONSTRAINT uk_bench_attendance_records_user_date UNIQUE (user_id, attendance_date);
+
+-- 3. Old query with index: only the user_id prefix is usable, DATE() is evaluated per row
+EXPLAIN ANALYZE
+SELECT * FROM bench_attendance_records
+WHERE user_id = @user_id AND DATE(attendance_date) BETWEEN DATE(@start_date) AND DATE(@end_date);
+
+-- 4. New query with index: range scan on (user_id, attendance_date)
+EXPLAIN ANALYZE
+SELECT * FROM bench_attendance_records
+WHERE user_id = @user_id AND attendance_date >= @start_date AND attendance_date <= @end_date;
+
+-- existsAttendanceRecordsByUserAndAndAttendanceDate: single index lookup
+EXPLAIN ANALYZE
+SELECT 1 FROM bench_attendance_records WHERE user_id = @user_id AND attendance_date = @end_date LIMIT 1;
+
+DROP TABLE bench_attendance_records;